@@ -0,0 +1,36 @@
+package benchmarks;
+
+import entities.Creature;
+import entities.EntityStore;
+import inputs.Keyboard;
+import inputs.Mouse;
+
+import java.awt.Graphics2D;
+
+/**
+ * A creature with no input, update, drawing or handler, for the
+ * benchmarks to fill entity stores with. Benchmarks that need a
+ * behavior override {@link #act}.
+ */
+class BenchmarkCreature extends Creature {
+
+    BenchmarkCreature(EntityStore store, float x, float y, int width, int height) {
+        super(null, store, x, y, width, height);
+    }
+
+    @Override
+    public void input(Keyboard key, Mouse mouse) {
+    }
+
+    @Override
+    public void update() {
+    }
+
+    @Override
+    public void render(Graphics2D g) {
+    }
+
+    @Override
+    public void cleanUp() {
+    }
+}
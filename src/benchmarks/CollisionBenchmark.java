@@ -0,0 +1,93 @@
+package benchmarks;
+
+import tiles.CollisionLayer;
+import tiles.Tile;
+import tiles.TileStore;
+
+import java.util.SplittableRandom;
+
+/**
+ * Compares the tile collision checks of many creatures moving over
+ * a map: the old lookup through the tile's id, the tile registry
+ * and its virtual isSolid(), against a read of the collision
+ * bitmask. Every creature checks the four tiles Creature does per
+ * tick.
+ * <p>
+ * Run with: java benchmarks.CollisionBenchmark [creatures] [ticks]
+ */
+public class CollisionBenchmark {
+
+    private static final int SIZE = 1024;
+
+    public static void main(String[] args) {
+        int creatures = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+        SplittableRandom random = new SplittableRandom(7);
+        TileStore tiles = new TileStore(SIZE, SIZE);
+        CollisionLayer collision = new CollisionLayer(SIZE, SIZE);
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                int id = random.nextInt(Tile.registry.size());
+                tiles.set(x, y, id);
+                collision.setSolid(x, y, Tile.get(id).isSolid());
+            }
+        }
+        int[] tileX = new int[creatures];
+        int[] tileY = new int[creatures];
+
+        for (int i = 0; i < creatures; i++) {
+            tileX[i] = random.nextInt(SIZE);
+            tileY[i] = random.nextInt(SIZE);
+        }
+        System.out.println(creatures + " creatures, " + ticks + " ticks, " + collision.count() + " solid tiles");
+
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            int hits = 0;
+
+            for (int tick = 0; tick < ticks; tick++) {
+                for (int i = 0; i < creatures; i++) {
+                    int x = (tileX[i] + tick) & (SIZE - 1);
+                    int y = tileY[i];
+                    hits += isSolidTile(tiles, x, y) ? 1 : 0;
+                    hits += isSolidTile(tiles, x + 1, y) ? 1 : 0;
+                    hits += isSolidTile(tiles, x, y + 1) ? 1 : 0;
+                    hits += isSolidTile(tiles, x + 1, y + 1) ? 1 : 0;
+                }
+            }
+            report("tile lookup", start, creatures, ticks, hits);
+            start = System.nanoTime();
+            hits = 0;
+
+            for (int tick = 0; tick < ticks; tick++) {
+                for (int i = 0; i < creatures; i++) {
+                    int x = (tileX[i] + tick) & (SIZE - 1);
+                    int y = tileY[i];
+                    hits += collision.isSolid(x, y) ? 1 : 0;
+                    hits += collision.isSolid(x + 1, y) ? 1 : 0;
+                    hits += collision.isSolid(x, y + 1) ? 1 : 0;
+                    hits += collision.isSolid(x + 1, y + 1) ? 1 : 0;
+                }
+            }
+            report("bitmask", start, creatures, ticks, hits);
+        }
+    }
+
+    /**
+     * The path World.getTile(x, y).isSolid() took.
+     */
+    private static boolean isSolidTile(TileStore tiles, int x, int y) {
+        if (x < 0 || y < 0 || x >= SIZE || y >= SIZE) {
+            return Tile.grass1.isSolid();
+        }
+        Tile tile = Tile.get(tiles.get(x, y));
+        return (tile == null ? Tile.dirt : tile).isSolid();
+    }
+
+    private static void report(String name, long start, int creatures, int ticks, int hits) {
+        long time = System.nanoTime() - start;
+        System.out.printf("%-12s %8.1f ms %6.2f ns/check (%d hits)%n", name, time / 1e6,
+                time / (creatures * (double) ticks * 4), hits);
+    }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import tiles.MapFile;
+import utils.Util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Compares reading a text level by splitting the whole file into
+ * String tokens, the way World.loadMap used to, with the streaming
+ * IntScanner that MapFile.readText uses now. A random level of
+ * size by size tiles is written to a temporary file first.
+ * <p>
+ * The split path holds the file as a String and every token at
+ * once, so give it room: java -Xmx4g benchmarks.MapLoadBenchmark [size] [runs]
+ */
+public class MapLoadBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        File file = File.createTempFile("level", ".txt");
+        file.deleteOnExit();
+        writeLevel(file, size);
+        System.out.printf("Level: %dx%d tiles, %.1f MB%n", size, size, file.length() / 1e6);
+
+        for (int run = 0; run < runs; run++) {
+            measure("split", () -> readSplit(file.getPath()));
+            measure("scanner", () -> MapFile.readText(file.getPath()).getTiles().get(size - 1, size - 1));
+        }
+    }
+
+    /**
+     * The old World.loadMap parsing.
+     */
+    private static int readSplit(String file) {
+        String[] tokens = Util.loadFileAsString(file).split("\\s+");
+        int width = Util.parseInt(tokens[0]);
+        int height = Util.parseInt(tokens[1]);
+        int[][] map = new int[width][height];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                map[x][y] = Util.parseInt(tokens[(x + y * width) + 5]);
+            }
+        }
+        return map[width - 1][height - 1];
+    }
+
+    private static void measure(String name, Load load) throws IOException {
+        System.gc();
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        load.run();
+        long time = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        System.out.printf("%-8s %8.1f ms %10.1f MB allocated%n", name, time / 1e6, allocated / 1e6);
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static void writeLevel(File file, int size) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(file))) {
+            out.write(size + " " + size + "\n0\n" + size / 2 + " " + size / 2 + "\n");
+
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    out.write(Integer.toString(random.nextInt(16)));
+                    out.write(x + 1 < size ? ' ' : '\n');
+                }
+            }
+        }
+    }
+
+    private interface Load {
+        int run() throws IOException;
+    }
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import entities.Creature;
+import entities.EntityEffects;
+import entities.EntityStore;
+import entities.ParallelUpdater;
+import entities.SpatialHash;
+import textures.Assets;
+import tiles.World;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the entity update of a generated world full of creatures on
+ * one thread and on every core. Each creature wanders, and hits and
+ * pushes the nearest other creature it finds through the spatial
+ * hash, so every tick has effects crossing partitions. A checksum of
+ * every position and health shows the runs agree bit for bit.
+ * <p>
+ * Run from the game folder with:
+ * java benchmarks.ParallelUpdateBenchmark [creatures] [ticks] [threads]
+ * The threads default to every core.
+ */
+public class ParallelUpdateBenchmark {
+
+    private static final String LEVEL = World.GENERATED + "7:512";
+
+    public static void main(String[] args) {
+        int creatures = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+        int cores = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(cores);
+        Assets.initTiles();
+
+        for (int run = 0; run < 3; run++) {
+            long one = run(creatures, ticks, single);
+            long all = run(creatures, ticks, parallel);
+
+            if (one != all) {
+                System.out.println("MISMATCH: the result differs between thread counts");
+            }
+        }
+        single.shutdown();
+        parallel.shutdown();
+    }
+
+    private static long run(int creatures, int ticks, ForkJoinPool pool) {
+        World world = new World(null, LEVEL);
+        EntityStore store = world.getEntities();
+        SpatialHash hash = world.getSpatialHash();
+        ParallelUpdater updater = new ParallelUpdater(pool);
+        SplittableRandom random = new SplittableRandom(3);
+
+        for (int i = 0; i < creatures; i++) {
+            new Wanderer(store, hash, random.nextInt(world.getWidth() * 64), random.nextInt(world.getHeight() * 64));
+        }
+        hash.updateAll();
+        long start = System.nanoTime();
+
+        for (int tick = 0; tick < ticks; tick++) {
+            store.storePreviousPositions();
+            updater.update(store, world);
+            hash.updateAll();
+        }
+        long time = System.nanoTime() - start;
+        long checksum = 0;
+
+        for (int id = 0; id < store.size(); id++) {
+            if (store.get(id) instanceof Wanderer) {
+                Wanderer wanderer = (Wanderer) store.get(id);
+                checksum = checksum * 31 + Float.floatToIntBits(wanderer.getX());
+                checksum = checksum * 31 + Float.floatToIntBits(wanderer.getY());
+                checksum = checksum * 31 + Float.floatToIntBits(wanderer.getHealth());
+            }
+        }
+        System.out.printf("%d creatures %2d threads %7.2f ms/tick, %d partitions (checksum %016x)%n", creatures,
+                pool.getParallelism(), time / 1e6 / ticks, updater.getPartitions(), checksum);
+        return checksum;
+    }
+
+    private static class Wanderer extends BenchmarkCreature {
+
+        private final SpatialHash hash;
+        private int tick = 0;
+
+        Wanderer(EntityStore store, SpatialHash hash, float x, float y) {
+            super(store, x, y, 32, 32);
+            this.hash = hash;
+            store.setFlag(id, EntityStore.STEERED, true);
+        }
+
+        @Override
+        public void act(EntityEffects effects) {
+            // A new heading every second, the same on any thread
+            int heading = (int) (mix(id * 0x9E3779B97F4A7C15L + tick++ / 60) >>> 60);
+            setUp((heading & 1) != 0);
+            setDown((heading & 2) != 0);
+            setLeft((heading & 4) != 0);
+            setRight((heading & 8) != 0);
+            float x = getX() + 16;
+            float y = getY() + 16;
+            int other = hash.nearest(x, y, 48, id);
+
+            if (other >= 0) {
+                Creature creature = (Creature) store.get(other);
+                effects.damage(other, 0.25f);
+                effects.push(other, Math.signum(creature.getX() + 16 - x), Math.signum(creature.getY() + 16 - y));
+            }
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+            z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return z ^ (z >>> 33);
+        }
+    }
+}
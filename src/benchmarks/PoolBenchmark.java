@@ -0,0 +1,89 @@
+package benchmarks;
+
+import entities.EntityPool;
+import entities.EntityStore;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+/**
+ * Fires short lived projectiles into an entity store, as combat
+ * would, creating each with new and removing it when it expires
+ * against acquiring and releasing them through an EntityPool. Each
+ * tick a random number are fired and each lives a random number of
+ * ticks. Prints the time, the garbage collections and, for the pool,
+ * its hit rate and high-water mark.
+ * <p>
+ * Run with: java benchmarks.PoolBenchmark [ticks] [shots per tick]
+ */
+public class PoolBenchmark {
+
+    private static final int LIFETIME = 90;
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int shots = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        for (int run = 0; run < 3; run++) {
+            run(ticks, shots, false);
+            run(ticks, shots, true);
+        }
+    }
+
+    private static void run(int ticks, int shots, boolean pooled) {
+        SplittableRandom random = new SplittableRandom(5);
+        EntityStore store = new EntityStore();
+        EntityPool<Projectile> pool = new EntityPool<>("projectiles", () -> new Projectile(store), 4096);
+        ArrayDeque<Projectile> live = new ArrayDeque<>();
+        long collections = collections();
+        long start = System.nanoTime();
+
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int i = random.nextInt(shots + 1); i > 0; i--) {
+                Projectile projectile = pooled ? pool.acquire(random.nextInt(1000), random.nextInt(1000))
+                        : new Projectile(store);
+                projectile.expires = tick + random.nextInt(1, LIFETIME);
+                live.add(projectile);
+            }
+            // Lifetimes vary, so expired ones are found by going round the queue
+            for (int i = live.size(); i > 0; i--) {
+                Projectile projectile = live.poll();
+
+                if (projectile.expires > tick) {
+                    live.add(projectile);
+                } else if (pooled) {
+                    pool.release(projectile);
+                } else {
+                    store.remove(projectile.getId());
+                }
+            }
+        }
+        long time = System.nanoTime() - start;
+        System.out.printf("%-6s %8.1f ms %4d collections, store size %d%n", pooled ? "pooled" : "new", time / 1e6,
+                collections() - collections, store.size());
+
+        if (pooled) {
+            System.out.println("       " + pool.report());
+        }
+    }
+
+    private static long collections() {
+        long count = 0;
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static class Projectile extends BenchmarkCreature {
+
+        private int expires;
+
+        Projectile(EntityStore store) {
+            super(store, 0, 0, 8, 8);
+        }
+    }
+}
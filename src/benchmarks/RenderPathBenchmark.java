@@ -0,0 +1,135 @@
+package benchmarks;
+
+import tiles.Tile;
+import utils.FrameProfiler;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * Compares the frame time of the render paths in core.Core on a
+ * tile-heavy frame: a full 1280x720 screen of 64x64 tiles drawn
+ * from 256x256 textures, the same as World.render does today.
+ * <p>
+ * The buffered path draws into a TYPE_INT_ARGB BufferedImage and
+ * copies it to the target, the direct path draws into the target
+ * and the volatile path draws into a VolatileImage and copies it.
+ * With a display the target is an accelerated VolatileImage like a
+ * BufferStrategy back buffer, headless it is a compatible image.
+ * <p>
+ * Run with: java benchmarks.RenderPathBenchmark [frames]
+ */
+public class RenderPathBenchmark {
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    private static final int WARM_UP = 200;
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        BufferedImage[] textures = createTextures(16, 256);
+        boolean headless = GraphicsEnvironment.isHeadless();
+        GraphicsConfiguration config = headless ? null : GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        Image target = headless ? new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB)
+                : config.createCompatibleVolatileImage(WIDTH, HEIGHT);
+
+        System.out.println("Target: " + (headless ? "BufferedImage (headless)" : "VolatileImage")
+                + " | " + frames + " frames");
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        report("buffered_image", run(frames, () -> {
+            Graphics2D g2d = image.createGraphics();
+            drawFrame(g2d, textures);
+            g2d.dispose();
+            Graphics graphics = target.getGraphics();
+            graphics.clearRect(0, 0, WIDTH, HEIGHT);
+            graphics.drawImage(image, 0, 0, null);
+            graphics.dispose();
+        }));
+        report("direct", run(frames, () -> {
+            Graphics2D graphics = (Graphics2D) target.getGraphics();
+            drawFrame(graphics, textures);
+            graphics.dispose();
+        }));
+
+        if (!headless) {
+            VolatileImage[] back = {config.createCompatibleVolatileImage(WIDTH, HEIGHT)};
+            report("volatile", run(frames, () -> {
+                if (back[0].validate(config) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    back[0] = config.createCompatibleVolatileImage(WIDTH, HEIGHT);
+                }
+                Graphics2D g2d = back[0].createGraphics();
+                drawFrame(g2d, textures);
+                g2d.dispose();
+                Graphics graphics = target.getGraphics();
+                graphics.drawImage(back[0], 0, 0, null);
+                graphics.dispose();
+            }));
+        }
+    }
+
+    private static FrameProfiler run(int frames, Runnable frame) {
+        for (int i = 0; i < WARM_UP; i++) {
+            frame.run();
+        }
+        FrameProfiler profiler = new FrameProfiler(frames);
+
+        for (int i = 0; i < frames; i++) {
+            profiler.begin(FrameProfiler.RENDER);
+            frame.run();
+            profiler.end(FrameProfiler.RENDER);
+            profiler.endFrame();
+        }
+        Toolkit.getDefaultToolkit().sync();
+        return profiler;
+    }
+
+    private static void report(String name, FrameProfiler profiler) {
+        long[] samples = profiler.getSamples(FrameProfiler.RENDER);
+        long total = 0;
+
+        for (long sample : samples) {
+            total += sample;
+        }
+        System.out.printf("%-15s mean=%.3f ms p50=%.3f ms p95=%.3f ms p99=%.3f ms%n", name,
+                total / (double) samples.length / 1e6, profiler.getP50(FrameProfiler.RENDER) / 1e6,
+                profiler.getP95(FrameProfiler.RENDER) / 1e6, profiler.getP99(FrameProfiler.RENDER) / 1e6);
+    }
+
+    /**
+     * Draws the same hints and tile grid as a PlayState frame.
+     */
+    private static void drawFrame(Graphics2D g2d, BufferedImage[] textures) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2d.clearRect(0, 0, WIDTH, HEIGHT);
+
+        for (int y = 0; y <= HEIGHT / Tile.TILE_SIZE; y++) {
+            for (int x = 0; x <= WIDTH / Tile.TILE_SIZE; x++) {
+                g2d.drawImage(textures[(x * 7 + y * 3) % textures.length], x * Tile.TILE_SIZE, y * Tile.TILE_SIZE,
+                        Tile.TILE_SIZE, Tile.TILE_SIZE, null);
+            }
+        }
+    }
+
+    private static BufferedImage[] createTextures(int count, int size) {
+        BufferedImage[] textures = new BufferedImage[count];
+
+        for (int i = 0; i < count; i++) {
+            // PNG tiles without alpha load as 3 byte BGR images
+            textures[i] = new BufferedImage(size, size, BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D g2d = textures[i].createGraphics();
+            g2d.setColor(Color.getHSBColor(i / (float) count, 0.6f, 0.8f));
+            g2d.fillRect(0, 0, size, size);
+            g2d.setColor(Color.DARK_GRAY);
+
+            for (int line = 0; line < size; line += 16) {
+                g2d.drawLine(line, 0, size - line, size);
+            }
+            g2d.dispose();
+        }
+        return textures;
+    }
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import entities.BaseEntity;
+import entities.Creature;
+import entities.EntityStore;
+import entities.SpatialHash;
+import tiles.Tile;
+
+import java.util.SplittableRandom;
+
+/**
+ * Compares finding every overlapping pair of creatures wandering a
+ * map by checking all pairs against the spatial hash, which only
+ * checks the creatures of nearby cells. Each tick every creature
+ * takes a step and the hash is brought up to date before the
+ * queries, as World does. All pairs runs fewer ticks once it gets
+ * slow; where the ticks match, so do the pair counts.
+ * <p>
+ * Run with: java benchmarks.SpatialHashBenchmark [creatures ...] [ticks]
+ * The counts default to 1000, 5000 and 20000, over 100 ticks.
+ */
+public class SpatialHashBenchmark {
+
+    private static final int SIZE = 512;
+    private static final int ENTITY_SIZE = 32;
+    private static final int STEP = 4;
+
+    public static void main(String[] args) {
+        int[] counts = {1000, 5000, 20000};
+        int ticks = 100;
+
+        if (args.length > 0) {
+            counts = new int[Math.max(1, args.length - 1)];
+
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+            if (args.length > 1) {
+                ticks = Integer.parseInt(args[args.length - 1]);
+            }
+        }
+        // Warm up so the first count is not measured in the interpreter
+        run(1000, 20, false);
+        run(1000, 20, true);
+
+        for (int count : counts) {
+            // All pairs is quadratic, keep its runs bearable
+            run(count, Math.max(1, (int) Math.min(ticks, 2e9 / ((long) count * count))), false);
+            run(count, ticks, true);
+        }
+    }
+
+    private static void run(int count, int ticks, boolean hashed) {
+        SplittableRandom random = new SplittableRandom(11);
+        EntityStore store = new EntityStore(count);
+        SpatialHash hash = new SpatialHash(store, count);
+        int world = SIZE * Tile.TILE_SIZE;
+
+        for (int i = 0; i < count; i++) {
+            new BenchmarkCreature(store, random.nextInt(world), random.nextInt(world), ENTITY_SIZE, ENTITY_SIZE);
+        }
+        int[] found = new int[64];
+        long pairs = 0;
+        long start = System.nanoTime();
+
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int id = 0; id < count; id++) {
+                Creature creature = (Creature) store.get(id);
+                creature.setX(Math.floorMod((int) creature.getX() + random.nextInt(-STEP, STEP + 1), world));
+                creature.setY(Math.floorMod((int) creature.getY() + random.nextInt(-STEP, STEP + 1), world));
+            }
+            if (hashed) {
+                hash.updateAll();
+
+                for (int id = 0; id < count; id++) {
+                    pairs += Math.min(found.length, hash.queryOverlapping(id, found));
+                }
+            } else {
+                for (int a = 0; a < count; a++) {
+                    for (int b = 0; b < count; b++) {
+                        if (a != b && overlaps(store.get(a), store.get(b))) {
+                            pairs++;
+                        }
+                    }
+                }
+            }
+        }
+        long time = System.nanoTime() - start;
+        System.out.printf("%6d creatures %-9s %9.1f ms/tick (%d pairs over %d ticks)%n", count,
+                hashed ? "hashed" : "all pairs", time / 1e6 / ticks, pairs, ticks);
+    }
+
+    private static boolean overlaps(BaseEntity a, BaseEntity b) {
+        return a.getX() < b.getX() + ENTITY_SIZE && b.getX() < a.getX() + ENTITY_SIZE
+                && a.getY() < b.getY() + ENTITY_SIZE && b.getY() < a.getY() + ENTITY_SIZE;
+    }
+}
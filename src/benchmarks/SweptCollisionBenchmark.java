@@ -0,0 +1,141 @@
+package benchmarks;
+
+import entities.BaseEntity;
+import entities.EntityStore;
+import entities.MovementSystem;
+import textures.Assets;
+import tiles.Tile;
+import tiles.World;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Moves boxes of every size from a few pixels to several tiles at
+ * speeds of up to a few tiles a tick through a generated world with
+ * MovementSystem's swept collision, for many entity counts. Prints
+ * the time per move and the bytes allocated, which should be none,
+ * and first checks that no box ever ends a move inside a solid tile
+ * it was not already in.
+ * <p>
+ * Run from the game folder with:
+ * java benchmarks.SweptCollisionBenchmark [entities ...]
+ * The counts default to 1000, 10000 and 100000.
+ */
+public class SweptCollisionBenchmark {
+
+    private static final String LEVEL = World.GENERATED + "7:512";
+    private static final int TICKS = 200;
+    private static final int MAX_SIZE = 3 * Tile.TILE_SIZE;
+    private static final int MAX_SPEED = 3 * Tile.TILE_SIZE;
+
+    public static void main(String[] args) {
+        int[] counts = {1000, 10_000, 100_000};
+
+        if (args.length > 0) {
+            counts = new int[args.length];
+
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        Assets.initTiles();
+        World world = new World(null, LEVEL);
+        System.out.println(check(world, counts[0]) + " moves ended in a solid tile");
+
+        for (int run = 0; run < 2; run++) {
+            for (int count : counts) {
+                run(world, count);
+            }
+        }
+    }
+
+    private static EntityStore spawn(World world, int count) {
+        SplittableRandom random = new SplittableRandom(count);
+        EntityStore store = new EntityStore(count);
+        int pixels = world.getWidth() * Tile.TILE_SIZE;
+
+        for (int i = 0; i < count; i++) {
+            BaseEntity box = new BenchmarkCreature(store, random.nextInt(pixels), random.nextInt(pixels), MAX_SIZE, MAX_SIZE);
+            box.setEntityBounds(0, 0, random.nextInt(4, MAX_SIZE), random.nextInt(4, MAX_SIZE));
+        }
+        return store;
+    }
+
+    private static void steer(EntityStore store, SplittableRandom random) {
+        for (int id = 0; id < store.size(); id++) {
+            store.get(id).setVelocity(random.nextInt(-MAX_SPEED, MAX_SPEED + 1) / 2f,
+                    random.nextInt(-MAX_SPEED, MAX_SPEED + 1) / 2f);
+        }
+    }
+
+    private static void run(World world, int count) {
+        EntityStore store = spawn(world, count);
+        SplittableRandom random = new SplittableRandom(1);
+        long time = 0;
+        long allocated = 0;
+        // What reading the counter allocates itself
+        long overhead = -allocatedBytes();
+        overhead += allocatedBytes();
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            steer(store, random);
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+
+            for (int id = 0; id < count; id++) {
+                MovementSystem.move(store, id, world);
+            }
+            time += System.nanoTime() - start;
+            allocated += allocatedBytes() - bytes - overhead;
+        }
+        System.out.printf("%7d entities %7.1f ns/move %6.2f ms/tick, %d bytes allocated%n", count,
+                time / ((double) count * TICKS), time / 1e6 / TICKS, allocated);
+    }
+
+    /**
+     * Moves the entities and counts the moves that end overlapping a
+     * solid tile the box did not overlap before.
+     */
+    private static int check(World world, int count) {
+        EntityStore store = spawn(world, count);
+        SplittableRandom random = new SplittableRandom(1);
+        int failures = 0;
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            steer(store, random);
+
+            for (int id = 0; id < count; id++) {
+                BaseEntity box = store.get(id);
+                boolean before = overlapsSolid(world, box);
+                MovementSystem.move(store, id, world);
+
+                if (!before && overlapsSolid(world, box)) {
+                    failures++;
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static boolean overlapsSolid(World world, BaseEntity box) {
+        int x0 = (int) Math.floor(box.getX() / Tile.TILE_SIZE);
+        int y0 = (int) Math.floor(box.getY() / Tile.TILE_SIZE);
+        int x1 = (int) Math.ceil((box.getX() + box.getBounds().width) / Tile.TILE_SIZE) - 1;
+        int y1 = (int) Math.ceil((box.getY() + box.getBounds().height) / Tile.TILE_SIZE) - 1;
+
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                if (world.getCollision().isSolid(x, y)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import tiles.WorldGenerator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of WorldGenerator on square worlds, on one
+ * thread and on every core. The chunks go into a sink that only
+ * sums a hash of them, so even the largest world is never held in
+ * memory, and the sums show the world is the same on any number of
+ * threads.
+ * <p>
+ * Run with: java benchmarks.WorldGenBenchmark [size ...]
+ * The sizes default to 1024, 4096 and 16384.
+ */
+public class WorldGenBenchmark {
+
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        int[] sizes = {1024, 4096, 16384};
+
+        if (args.length > 0) {
+            sizes = new int[args.length];
+
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(cores);
+        // Warm up so the first size is not measured in the interpreter
+        checksum(new WorldGenerator(SEED, parallel), 1024);
+
+        for (int size : sizes) {
+            long start = System.nanoTime();
+            long one = checksum(new WorldGenerator(SEED, single), size);
+            report(size, 1, start, one);
+            start = System.nanoTime();
+            long all = checksum(new WorldGenerator(SEED, parallel), size);
+            report(size, cores, start, all);
+
+            if (one != all) {
+                System.out.println("MISMATCH: the world differs between thread counts");
+            }
+        }
+        single.shutdown();
+        parallel.shutdown();
+    }
+
+    /**
+     * Generates a world and sums a hash of every chunk. Sums do not
+     * depend on the order the chunks arrive in.
+     */
+    private static long checksum(WorldGenerator generator, int size) {
+        AtomicLong sum = new AtomicLong();
+        generator.generate(size, size, (x, y, columns, rows, tiles) -> {
+            long hash = x * 31L + y;
+
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    hash = hash * 31 + tiles[row * WorldGenerator.CHUNK_SIZE + column];
+                }
+            }
+            sum.addAndGet(hash);
+        });
+        return sum.get();
+    }
+
+    private static void report(int size, int threads, long start, long checksum) {
+        long time = System.nanoTime() - start;
+        System.out.printf("%5d^2 %2d threads %9.1f ms %7.1f Mtiles/s (checksum %016x)%n", size, threads, time / 1e6,
+                (double) size * size / (time / 1e3), checksum);
+    }
+}
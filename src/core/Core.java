@@ -1,12 +1,24 @@
 package core;
 
 import graphics.Camera;
+import graphics.FrameSnapshot;
+import graphics.RenderProfile;
+import graphics.RenderQueue;
 import inputs.Keyboard;
 import inputs.Mouse;
+import inputs.ScriptedInput;
+import sounds.AudioPlayer;
+import states.RetainedState;
+import states.State;
 import states.StateManager;
 import textures.Assets;
+import tiles.Tile;
+import tiles.TileRegistry;
 import utils.GameLogic;
+import utils.FramePacer;
+import utils.FrameProfiler;
 import utils.Handler;
+import utils.TripleBuffer;
 import utils.Util;
 
 import javax.swing.*;
@@ -14,8 +26,10 @@ import java.awt.*;
 import java.awt.dnd.DropTarget;
 import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.LockSupport;
 
 public final class Core implements GameLogic, Runnable {
 
@@ -49,11 +63,64 @@ public final class Core implements GameLogic, Runnable {
      * Tracks the amount of time in the pause state.
      */
     public static int pauseTimer = 0;
+    /**
+     * The number of updates per second.
+     */
+    public static final double GAME_HERTZ = 60.0;
+    /**
+     * The most time a single frame may add to the update
+     * accumulator, so a long stall does not cause a burst of
+     * catch-up updates.
+     */
+    private static final long MAX_FRAME_TIME = 250_000_000L;
+    /**
+     * The time between two updates in nanoseconds.
+     */
+    private static final long UPDATE_TIME = (long) (1_000_000_000 / GAME_HERTZ);
 
+    /**
+     * Whether the game runs without a window, ticking the
+     * simulation as fast as it can.
+     */
+    private final boolean headless;
     private final Window window;
     private final BufferedImage image;
     private final Graphics2D g2d;
     private final Rectangle rect;
+    /**
+     * Selected with the game.loop system property, either
+     * "fixed", "interpolated" or "pipelined".
+     */
+    private final LoopMode loopMode = LoopMode.parse(System.getProperty("game.loop"), LoopMode.INTERPOLATED);
+    /**
+     * Frame rate cap for the interpolated loop, selected with the
+     * game.fps system property. Zero leaves rendering uncapped.
+     */
+    private final double maxFps = Double.parseDouble(System.getProperty("game.fps", "0"));
+    /**
+     * How frames reach the window, selected with the game.render
+     * system property: "direct", "volatile" or "buffered_image".
+     */
+    private final RenderPath renderPath = RenderPath.parse(System.getProperty("game.render"), RenderPath.DIRECT);
+    /**
+     * The manifest of extra tiles, selected with the game.tiles
+     * system property. Nothing is read when the file is missing.
+     */
+    private final String tileManifest = System.getProperty("game.tiles", TileRegistry.MANIFEST);
+    /**
+     * The accelerated back buffer of the volatile render path.
+     */
+    private transient VolatileImage volatileImage;
+    /**
+     * The render profile currently set on the BufferedImage
+     * graphics.
+     */
+    private transient RenderProfile appliedProfile;
+    /**
+     * The part of the screen a retained state needs redrawn this
+     * frame, or null to redraw everything.
+     */
+    private transient Rectangle dirtyRegion;
 
     private transient Handler handler;
     private transient Camera camera;
@@ -64,15 +131,81 @@ public final class Core implements GameLogic, Runnable {
     private transient Mouse mouse;
     private transient Thread thread;
     private transient StateManager state;
+    /**
+     * Feeds key presses to the keyboard in headless mode.
+     */
+    private transient ScriptedInput script;
+    /**
+     * The number of updates to run in headless mode before
+     * stopping, zero or less runs until stopped.
+     */
+    private long maxTicks = 0;
+    /**
+     * Whether headless mode still renders the states into the
+     * off-screen image.
+     */
+    private boolean renderHeadless = false;
+    private volatile double ticksPerSecond = 0;
+    /**
+     * Per phase timings of the last frames.
+     */
+    private final FrameProfiler profiler = new FrameProfiler(4096);
+    /**
+     * Timings of input and update. The same as the frame profiler
+     * unless the loop is pipelined, where updates run on their own
+     * thread and get their own profiler.
+     */
+    private final FrameProfiler updateProfiler = loopMode == LoopMode.PIPELINED ? new FrameProfiler(4096) : profiler;
+    /**
+     * Snapshots handed from the update thread to the render thread
+     * in the pipelined loop.
+     */
+    private final TripleBuffer<FrameSnapshot> snapshots = new TripleBuffer<>(FrameSnapshot::new);
+    /**
+     * Held by the update thread while it updates, and by the render
+     * thread while it draws a state that has no snapshot.
+     */
+    private final Object stateLock = new Object();
+    /**
+     * The draw commands of the frame being rendered.
+     */
+    private final RenderQueue renderQueue = new RenderQueue(MAX.width, MAX.height);
+    /**
+     * Where the frame timings are written on shutdown, selected
+     * with the game.profile.csv system property. Empty disables
+     * the export. The pipelined loop writes its update timings next
+     * to it, with .update.csv in place of .csv.
+     */
+    private final String profileCsv = System.getProperty("game.profile.csv", "frame_times.csv");
 
     public Core() {
-        window = new Window(MIN, MAX, TITLE.toString());
+        this(GraphicsEnvironment.isHeadless());
+    }
+
+    /**
+     * @param headless when true no Window or BufferStrategy is
+     *                 created and the game is ticked by
+     *                 {@link #runHeadless()} instead
+     */
+    public Core(boolean headless) {
+        this.headless = headless;
+        window = headless ? null : new Window(MIN, MAX, TITLE.toString());
         image = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_ARGB);
         g2d = image.createGraphics();
         rect = new Rectangle(0, 0, getWidth(), getHeight());
     }
 
     public static void main(String[] args) {
+        if (hasArg(args, "--headless")) {
+            System.setProperty("java.awt.headless", "true");
+            Core core = new Core(true);
+            core.setMaxTicks(Long.parseLong(getArg(args, "--ticks=", "0")));
+            core.setRenderHeadless(hasArg(args, "--render"));
+            String script = getArg(args, "--script=", null);
+            core.setScript(script != null ? ScriptedInput.load(script, true) : ScriptedInput.walkInSquare(120));
+            core.start();
+            return;
+        }
         try {
             UIManager.LookAndFeelInfo[] installedLookAndFeels= UIManager.getInstalledLookAndFeels();
             for (int idx = 0; idx < installedLookAndFeels.length; idx++) {
@@ -89,6 +222,24 @@ public final class Core implements GameLogic, Runnable {
         }
     }
 
+    private static boolean hasArg(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getArg(String[] args, String prefix, String fallback) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return fallback;
+    }
+
     /**
      * This method is for starting the game loop by
      * controlling the running variable.
@@ -99,9 +250,22 @@ public final class Core implements GameLogic, Runnable {
             thread = new Thread(this, TITLE.toString());
             System.out.println("Thread Starting..." + thread.getName());
 
+            if (!profileCsv.isEmpty()) {
+                // The window exits through System.exit, so cleanUp is not always reached
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    profiler.exportCsv(profileCsv);
+
+                    if (updateProfiler != profiler) {
+                        updateProfiler.exportCsv(profileCsv.replaceFirst("(\\.csv)?$", ".update.csv"));
+                    }
+                }));
+            }
             if(!thread.isAlive()) {
-                window.addNotify();
-                thread.setDaemon(true);
+                // Without a window nothing else keeps the JVM alive
+                if (!headless) {
+                    window.addNotify();
+                    thread.setDaemon(true);
+                }
                 thread.start();
             }
         }
@@ -127,21 +291,27 @@ public final class Core implements GameLogic, Runnable {
     }
 
     private void init() {
-        window.initFrame();
         key = new Keyboard(this);
-        mouse = new Mouse(this);
-        window.addKeyListener(key);
-        window.addMouseListener(mouse);
-        window.addMouseWheelListener(mouse);
-        window.addMouseMotionListener(mouse);
-        window.addFocusListener(mouse);
-        window.setDropTarget(new DropTarget(window.getPanel(), mouse));
-        window.setFocusTraversalKeysEnabled(false);
+
+        if (headless) {
+            AudioPlayer.setEnabled(false);
+        } else {
+            window.initFrame();
+            mouse = new Mouse(this);
+            window.addKeyListener(key);
+            window.addMouseListener(mouse);
+            window.addMouseWheelListener(mouse);
+            window.addMouseMotionListener(mouse);
+            window.addFocusListener(mouse);
+            window.setDropTarget(new DropTarget(window.getPanel(), mouse));
+            window.setFocusTraversalKeysEnabled(false);
+        }
         Assets.initCursor();
         Assets.initEntities();
         Assets.initItems();
         Assets.initObjects();
         Assets.initTiles();
+        loadTiles();
         Assets.initUIObjects();
         Assets.initAudio();
         handler = new Handler(this);
@@ -150,6 +320,23 @@ public final class Core implements GameLogic, Runnable {
         state.push(StateManager.PLAY);
     }
 
+    /**
+     * Adds the tiles of the manifest to the built in ones, once
+     * their textures are loaded.
+     */
+    private void loadTiles() {
+        try {
+            int count = Tile.registry.load(tileManifest);
+
+            if (count > 0) {
+                System.out.println("Loaded " + count + " tiles from " + tileManifest);
+            }
+        } catch (Exception e) {
+            Util.error(e, "Could not load tiles: " + e.getLocalizedMessage());
+            Util.exit(-1);
+        }
+    }
+
     public void updatePauseTimer() {
         if (paused) {
             pauseTimer++;
@@ -167,11 +354,16 @@ public final class Core implements GameLogic, Runnable {
      */
     @Override
     public void input(Keyboard key, Mouse mouse) {
-        window.input(key, mouse);
+        updateProfiler.begin(FrameProfiler.INPUT);
+
+        if (window != null) {
+            window.input(key, mouse);
+        }
 
         if (StateManager.getCurrentState() != null) {
             state.input(key, mouse);
         }
+        updateProfiler.end(FrameProfiler.INPUT);
     }
 
     /**
@@ -180,9 +372,12 @@ public final class Core implements GameLogic, Runnable {
      */
     @Override
     public void update() {
+        updateProfiler.begin(FrameProfiler.UPDATE);
+
         if (StateManager.getCurrentState() != null) {
             state.update();
         }
+        updateProfiler.end(FrameProfiler.UPDATE);
     }
 
     /**
@@ -192,36 +387,194 @@ public final class Core implements GameLogic, Runnable {
      */
     @Override
     public void render(Graphics2D g2d) {
+        render(g2d, 1.0f);
+    }
+
+    /**
+     * Draws the current state between the previous and the
+     * current update and presents the frame.
+     * @param g2d   is the Graphics object
+     * @param alpha is the interpolation between updates
+     */
+    @Override
+    public void render(Graphics2D g2d, float alpha) {
+        State current = StateManager.getCurrentState();
+        dirtyRegion = current instanceof RetainedState retained ? retained.takeDirty() : null;
+
+        if (headless) {
+            profiler.begin(FrameProfiler.RENDER);
+            drawState(g2d, alpha, true);
+            profiler.end(FrameProfiler.RENDER);
+            return;
+        }
         BufferStrategy bs = window.getBufferStrategy();
 
         if(bs == null) {
             window.createBufferStrategy(3);
             return;
         }
+        switch (renderPath) {
+            case DIRECT -> renderDirect(bs, alpha);
+            case VOLATILE -> renderVolatile(bs, alpha);
+            default -> renderBuffered(bs, g2d, alpha);
+        }
+    }
+
+    /**
+     * Draws the current state into the BufferedImage and copies
+     * it to the strategy's back buffer.
+     */
+    private void renderBuffered(BufferStrategy bs, Graphics2D g2d, float alpha) {
         do {
-            if (g2d != null) {
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-                g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-                g2d.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
-                g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-                g2d.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
-                g2d.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
-                g2d.clearRect(0, 0, getWidth(), getHeight());
+            profiler.begin(FrameProfiler.RENDER);
 
-                if (StateManager.getCurrentState() != null) {
-                    state.render(g2d);
-                }
+            if (g2d != null) {
+                drawState(g2d, alpha, true);
             }
             Graphics graphics = bs.getDrawGraphics();
             graphics.clearRect(0, 0,getWidth(), getHeight());
             // Draws an image that will hold any graphics that the Graphics2D object draws
             graphics.drawImage(image, 0, 0, image.getWidth(window), image.getHeight(window), window);
-            bs.show();
+            profiler.end(FrameProfiler.RENDER);
+            show(bs);
             graphics.dispose();
         } while(bs.contentsLost());
     }
 
+    /**
+     * Draws the current state straight into the strategy's
+     * back buffer. The back buffer does not keep the previous
+     * frame, so retained states are drawn whole.
+     */
+    private void renderDirect(BufferStrategy bs, float alpha) {
+        do {
+            do {
+                profiler.begin(FrameProfiler.RENDER);
+                Graphics2D graphics = (Graphics2D) bs.getDrawGraphics();
+                drawState(graphics, alpha, false);
+                graphics.dispose();
+                profiler.end(FrameProfiler.RENDER);
+            } while (bs.contentsRestored());
+            show(bs);
+        } while (bs.contentsLost());
+    }
+
+    /**
+     * Draws the current state into an accelerated VolatileImage
+     * and copies it to the strategy's back buffer. The image is
+     * redrawn when it was restored or lost while copying.
+     */
+    private void renderVolatile(BufferStrategy bs, float alpha) {
+        GraphicsConfiguration config = window.getGraphicsConfiguration();
+
+        do {
+            profiler.begin(FrameProfiler.RENDER);
+
+            int validation = volatileImage == null ? VolatileImage.IMAGE_INCOMPATIBLE : volatileImage.validate(config);
+
+            if (validation == VolatileImage.IMAGE_INCOMPATIBLE) {
+                volatileImage = config.createCompatibleVolatileImage(getWidth(), getHeight());
+            }
+            Graphics2D vg2d = volatileImage.createGraphics();
+            // A new or restored image has lost the previous frame
+            drawState(vg2d, alpha, validation == VolatileImage.IMAGE_OK);
+            vg2d.dispose();
+            Graphics graphics = bs.getDrawGraphics();
+            graphics.drawImage(volatileImage, 0, 0, window);
+            graphics.dispose();
+            profiler.end(FrameProfiler.RENDER);
+            show(bs);
+            // Redrawing only the dirty region again would leave the rest of a lost image empty
+            dirtyRegion = null;
+        } while (volatileImage.contentsLost() || bs.contentsLost());
+    }
+
+    /**
+     * Clears the graphics and draws the current state into it.
+     * The state's render profile is applied once to every new
+     * graphics object, and to the long lived BufferedImage
+     * graphics only when the profile changes. When the target
+     * still holds the previous frame, only the dirty region of a
+     * retained state is cleared and drawn.
+     *
+     * @param keepsFrame whether the target still holds the
+     *                   previously drawn frame
+     */
+    private void drawState(Graphics2D g2d, float alpha, boolean keepsFrame) {
+        State current = StateManager.getCurrentState();
+        RenderProfile profile = current != null ? current.getRenderProfile() : RenderProfile.QUALITY;
+
+        if (g2d != this.g2d) {
+            profile.apply(g2d);
+        } else if (profile != appliedProfile) {
+            profile.apply(g2d);
+            appliedProfile = profile;
+        }
+        Rectangle region = keepsFrame ? dirtyRegion : null;
+
+        if (region != null) {
+            g2d.setClip(region);
+            g2d.clearRect(region.x, region.y, region.width, region.height);
+        } else {
+            g2d.clearRect(0, 0, getWidth(), getHeight());
+        }
+
+        if (loopMode == LoopMode.PIPELINED) {
+            drawSnapshot(g2d);
+        } else if (StateManager.getCurrentState() != null) {
+            state.render(g2d, alpha);
+        }
+        if (region != null) {
+            g2d.setClip(null);
+        }
+    }
+
+    /**
+     * Whether the current state is a retained state with nothing
+     * to redraw, so the frame on screen is still up to date. A
+     * window that was repainted by the system, for example after
+     * being uncovered, has the whole state marked dirty.
+     */
+    private boolean isIdle() {
+        State current = StateManager.getCurrentState();
+
+        if (!(current instanceof RetainedState retained)) {
+            return false;
+        }
+        if (window != null && window.takeDamaged()) {
+            retained.markAllDirty();
+        }
+        return !retained.isDirty();
+    }
+
+    /**
+     * Draws the latest snapshot, interpolated by the time since it
+     * was published. States without a snapshot are drawn directly
+     * while holding the state lock, so the update thread cannot
+     * change them halfway through.
+     */
+    private void drawSnapshot(Graphics2D g2d) {
+        FrameSnapshot snapshot = snapshots.getFront();
+        State current = StateManager.getCurrentState();
+
+        if (snapshot.isValid() && current != null && snapshot.getStateId() == current.getId()) {
+            snapshot.render(renderQueue, Math.min(1.0f, (System.nanoTime() - snapshot.getTime()) / (float) UPDATE_TIME));
+            renderQueue.flush(g2d);
+        } else {
+            synchronized (stateLock) {
+                if (StateManager.getCurrentState() != null) {
+                    state.render(g2d, 1.0f);
+                }
+            }
+        }
+    }
+
+    private void show(BufferStrategy bs) {
+        profiler.begin(FrameProfiler.PRESENT);
+        bs.show();
+        profiler.end(FrameProfiler.PRESENT);
+    }
+
     @Override
     public void cleanUp() {
 
@@ -233,16 +586,165 @@ public final class Core implements GameLogic, Runnable {
     @Override
     public void run() {
         init();
-        final double GAME_HERTZ = 60.0;
+
+        if (headless) {
+            runHeadless();
+        } else if (loopMode == LoopMode.INTERPOLATED) {
+            runInterpolated();
+        } else if (loopMode == LoopMode.PIPELINED) {
+            runPipelined();
+        } else {
+            runFixed();
+        }
+        cleanUp();
+        stop();
+    }
+
+    /**
+     * Updates at a fixed rate and renders as often as the
+     * frame rate cap allows. Whatever time is left in the
+     * accumulator after the updates becomes the alpha passed
+     * to render, so movement between updates stays smooth.
+     */
+    private void runInterpolated() {
+        final FramePacer pacer = new FramePacer(maxFps);
+        long previousTime = System.nanoTime();
+        long accumulator = 0;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += Math.min(now - previousTime, MAX_FRAME_TIME);
+            previousTime = now;
+
+            // Input keeps the update rate, otherwise held keys repeat once per frame
+            if (accumulator >= UPDATE_TIME) {
+                input(key, mouse);
+            }
+            while (accumulator >= UPDATE_TIME) {
+                delta = UPDATE_TIME;
+                update();
+                accumulator -= UPDATE_TIME;
+            }
+            if (isIdle()) {
+                // Nothing changed on screen, so sleep until the next update is due
+                LockSupport.parkNanos(UPDATE_TIME - accumulator);
+                pacer.reset();
+                continue;
+            }
+            render(g2d, (float) accumulator / UPDATE_TIME);
+            profiler.endFrame();
+            pacer.sync();
+        }
+    }
+
+    /**
+     * Runs input and updates at a fixed rate on this thread and
+     * publishes a snapshot after every update, while a second
+     * thread renders the latest snapshot as often as the frame
+     * rate cap allows.
+     */
+    private void runPipelined() {
+        final FramePacer pacer = new FramePacer(GAME_HERTZ);
+        Thread renderThread = new Thread(this::runRenderer, TITLE + " Render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+
+        while (running) {
+            synchronized (stateLock) {
+                input(key, mouse);
+                delta = UPDATE_TIME;
+                update();
+                publishSnapshot();
+            }
+            updateProfiler.endFrame();
+            pacer.sync();
+        }
+    }
+
+    /**
+     * The render thread of the pipelined loop.
+     */
+    private void runRenderer() {
+        final FramePacer pacer = new FramePacer(maxFps);
+
+        while (running) {
+            if (isIdle()) {
+                LockSupport.parkNanos(UPDATE_TIME);
+                pacer.reset();
+                continue;
+            }
+            render(g2d, 1.0f);
+            profiler.endFrame();
+            pacer.sync();
+        }
+    }
+
+    /**
+     * Lets the current state fill the back snapshot and hands it
+     * to the render thread.
+     */
+    private void publishSnapshot() {
+        State current = StateManager.getCurrentState();
+
+        if (current == null) {
+            return;
+        }
+        FrameSnapshot snapshot = snapshots.getBack();
+        snapshot.begin(current.getId(), System.nanoTime());
+
+        if (current.captureSnapshot(snapshot)) {
+            snapshot.finish();
+            snapshots.publish();
+        }
+    }
+
+    /**
+     * Ticks the states, world and entities as fast as possible
+     * with input coming from the script. Rendering only happens
+     * off-screen and only when asked for. The updates per second
+     * are reported once a second and summed up at the end.
+     */
+    private void runHeadless() {
+        final long startTime = System.nanoTime();
+        long lastReportTime = startTime;
+        long ticks = 0;
+        long lastReportTicks = 0;
+
+        while (running && (maxTicks <= 0 || ticks < maxTicks)) {
+            if (script != null) {
+                script.apply(ticks, key);
+            }
+            input(key, mouse);
+            delta = UPDATE_TIME;
+            update();
+
+            if (renderHeadless && !isIdle()) {
+                render(g2d, 1.0f);
+            }
+            profiler.endFrame();
+            ticks++;
+            long now = System.nanoTime();
+
+            if (now - lastReportTime >= 1_000_000_000) {
+                ticksPerSecond = (ticks - lastReportTicks) * 1_000_000_000.0 / (now - lastReportTime);
+                System.out.println("TPS: " + (long) ticksPerSecond);
+                lastReportTime = now;
+                lastReportTicks = ticks;
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        System.out.println("Headless run: " + ticks + " ticks in " + String.format("%.3f", seconds)
+                + "s | Average TPS: " + (long) (ticks / seconds));
+        System.out.println(profiler.summary());
+    }
+
+    private void runFixed() {
         final double TIME_BEFORE_UPDATE = 1_000_000_000 / GAME_HERTZ;
         final int MAX_UPDATE_BEFORE_RENDER = 5;
         long lastUpdateTime = System.nanoTime();
         long lastRenderTime;
         final double TARGET_FPS = 60;
         final double TARGET_TIME_BEFORE_RENDER = 1_000_000_000 / TARGET_FPS;
-        int frameCount = 0;
-        int lastSecondTime = (int) (lastUpdateTime / 1_000_000_000);
-        int lastFrameCount = 0;
 
         while (running) {
             long now = System.nanoTime();
@@ -258,28 +760,69 @@ public final class Core implements GameLogic, Runnable {
             if (now - lastUpdateTime > TIME_BEFORE_UPDATE) {
                 lastUpdateTime = now - (long) TIME_BEFORE_UPDATE;
             }
-            render(g2d);
-            lastRenderTime = now;
-            frameCount++;
-            int thisSecond = (int) (lastUpdateTime / 1_000_000_000);
-
-            if (thisSecond > lastSecondTime) {
-                if (frameCount != lastFrameCount) {
-                    System.out.println("NEW SECOND: " + thisSecond + " | FPS: " + frameCount);
-                    lastFrameCount = frameCount;
-                }
-                System.out.println("OLD SECOND: " + lastSecondTime + " | FPS: " + frameCount);
-                frameCount = 0;
-                lastSecondTime = thisSecond;
+            if (!isIdle()) {
+                render(g2d);
+                profiler.endFrame();
             }
+            lastRenderTime = now;
             while (now - lastRenderTime < TARGET_TIME_BEFORE_RENDER && now - lastUpdateTime < TIME_BEFORE_UPDATE) {
                 Thread.yield();
                 Util.SleepThread(5);
                 now = System.nanoTime();
             }
         }
-        cleanUp();
-        stop();
+    }
+
+    /**
+     * The per phase frame timings, see {@link FrameProfiler}.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * The input and update timings. In the pipelined loop these
+     * are recorded per update on the update thread, otherwise this
+     * is the same profiler as {@link #getProfiler()}.
+     */
+    public FrameProfiler getUpdateProfiler() {
+        return updateProfiler;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * The updates per second measured over the last second
+     * of a headless run.
+     */
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public ScriptedInput getScript() {
+        return script;
+    }
+
+    public void setScript(ScriptedInput script) {
+        this.script = script;
+    }
+
+    public long getMaxTicks() {
+        return maxTicks;
+    }
+
+    public void setMaxTicks(long maxTicks) {
+        this.maxTicks = maxTicks;
+    }
+
+    public boolean isRenderHeadless() {
+        return renderHeadless;
+    }
+
+    public void setRenderHeadless(boolean renderHeadless) {
+        this.renderHeadless = renderHeadless;
     }
 
     public static boolean isMenuUp() {
@@ -330,6 +873,18 @@ public final class Core implements GameLogic, Runnable {
         return window;
     }
 
+    /**
+     * The render queue states submit their draws to. Only use it
+     * from the thread that renders.
+     */
+    public RenderQueue getRenderQueue() {
+        return renderQueue;
+    }
+
+    public RenderPath getRenderPath() {
+        return renderPath;
+    }
+
     public BufferedImage getImage() {
         return image;
     }
@@ -0,0 +1,45 @@
+package core;
+
+/**
+ * The different ways the game loop in {@link Core} can
+ * drive the update and render calls.
+ */
+public enum LoopMode {
+
+    /**
+     * The original loop. Updates at a fixed rate and renders
+     * the latest state, yielding and sleeping between frames.
+     */
+    FIXED,
+    /**
+     * Updates at a fixed rate and renders as often as possible,
+     * passing an interpolation alpha between the previous and
+     * the current update to the render calls.
+     */
+    INTERPOLATED,
+    /**
+     * Updates at a fixed rate on the game thread and publishes a
+     * snapshot of each update. A separate render thread draws the
+     * latest snapshot as often as it can, so updates and rendering
+     * overlap.
+     */
+    PIPELINED;
+
+    /**
+     * Returns the loop mode matching the given name, or the
+     * fallback if the name is null or unknown.
+     *
+     * @param name     is the name of the mode, case insensitive
+     * @param fallback is the mode used when no match is found
+     */
+    public static LoopMode parse(String name, LoopMode fallback) {
+        if (name != null) {
+            for (LoopMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name.trim())) {
+                    return mode;
+                }
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,44 @@
+package core;
+
+/**
+ * The ways {@link Core} can get a frame onto the window's
+ * BufferStrategy.
+ */
+public enum RenderPath {
+
+    /**
+     * The original path. States draw into a software
+     * BufferedImage which is then copied to the strategy's
+     * back buffer. Kept as a fallback.
+     */
+    BUFFERED_IMAGE,
+    /**
+     * States draw straight into the strategy's back buffer,
+     * without any intermediate image.
+     */
+    DIRECT,
+    /**
+     * States draw into an accelerated VolatileImage which is
+     * then copied to the strategy's back buffer. The image is
+     * recreated and redrawn whenever its contents are lost.
+     */
+    VOLATILE;
+
+    /**
+     * Returns the render path matching the given name, or the
+     * fallback if the name is null or unknown.
+     *
+     * @param name     is the name of the path, case insensitive
+     * @param fallback is the path used when no match is found
+     */
+    public static RenderPath parse(String name, RenderPath fallback) {
+        if (name != null) {
+            for (RenderPath path : values()) {
+                if (path.name().equalsIgnoreCase(name.trim())) {
+                    return path;
+                }
+            }
+        }
+        return fallback;
+    }
+}
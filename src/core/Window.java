@@ -22,6 +22,11 @@ public final class Window extends JFrame {
     private final Dimension maxSize;
     private final String title;
     private final JPanel panel;
+    /**
+     * Set when the system repaints the window, which wipes what
+     * the game last presented.
+     */
+    private volatile boolean damaged = false;
 
 
     public Window(Dimension minSize, Dimension maxSize, String title) {
@@ -77,6 +82,22 @@ public final class Window extends JFrame {
         }
     }
 
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        damaged = true;
+    }
+
+    /**
+     * Whether the window was repainted by the system since the
+     * last call.
+     */
+    public boolean takeDamaged() {
+        boolean wasDamaged = damaged;
+        damaged = false;
+        return wasDamaged;
+    }
+
     public void input(Keyboard key, Mouse mouse) {
         key.mapToKey(quit, KeyEvent.VK_Q);
 
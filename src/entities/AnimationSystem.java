@@ -0,0 +1,37 @@
+package entities;
+
+/**
+ * Advances the animation clock of every entity of a store in one
+ * sweep. Views pick their frame from the clock with
+ * {@link #getFrame}, so no entity keeps animation objects that
+ * need updating.
+ */
+public final class AnimationSystem {
+
+    private AnimationSystem() {
+    }
+
+    /**
+     * @param elapsedNanos is the time since the last update
+     */
+    public static void update(EntityStore store, long elapsedNanos) {
+        long[] time = store.animationTime;
+        int[] flags = store.flags;
+
+        for (int id = 0; id < store.size(); id++) {
+            if ((flags[id] & EntityStore.USED) != 0) {
+                time[id] += elapsedNanos;
+            }
+        }
+    }
+
+    /**
+     * The index of the frame an entity shows.
+     *
+     * @param frameCount is the number of frames in the animation
+     * @param frameTime  is how long each frame shows in milliseconds
+     */
+    public static int getFrame(EntityStore store, int id, int frameCount, long frameTime) {
+        return (int) ((store.animationTime[id] / (frameTime * 1_000_000)) % frameCount);
+    }
+}
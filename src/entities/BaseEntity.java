@@ -1,131 +1,62 @@
 package entities;
 
-import core.Core;
+import graphics.FrameSnapshot;
+import graphics.RenderQueue;
 import inputs.Keyboard;
 import inputs.Mouse;
-import math3D.vectors.Vector2f;
 import utils.Handler;
 
 import java.awt.*;
 
+/**
+ * A view of one entity in an {@link EntityStore}. The accessors
+ * read and write the entity's slot in the store's arrays, so
+ * systems sweeping the store and code holding the view see the
+ * same entity.
+ */
 public abstract class BaseEntity implements Attributes {
 
     protected Handler handler;
     /**
-     * The position along the X-axis of the
-     * coordinate plane
-     */
-    protected float x;
-    /**
-     * The position along the Y-axis of the
-     * coordinate plane
-     */
-    protected float y;
-    /**
-     * The directional movement along the X-axis
-     */
-    protected float velX;
-    /**
-     * The directional movement along the Y-axis
-     */
-    protected float velY;
-    /**
-     * Move Angle indicates direction entity is moving
-     */
-    protected float moveAngle;
-    /**
-     * Face Angle indicates which direction entity is facing
+     * The store holding the entity's position, velocity, size,
+     * bounds, angles and flags, all under its id.
      */
-    protected float faceAngle;
-    /**
-     * The total size of the entity along the x-axis
-     */
-    protected int width;
+    protected final EntityStore store;
+    protected final int id;
+
+    public BaseEntity(Handler handler, EntityStore store, float x, float y, int width, int height) {
+        this.handler = handler;
+        this.store = store;
+        this.id = store.create(this, x, y, width, height);
+    }
+
     /**
-     * The total size of the entity along the y-axis
+     * Returns the entity to the state it was created in at the
+     * given position, in place: velocity, angles, flags, state and
+     * timers are cleared while the size and bounds are kept. A
+     * parked entity is put back in its store. Subclasses reset
+     * their own fields and call this.
+     *
+     * @throws IllegalStateException when the entity was removed from
+     *                               its store
      */
-    protected int height;
-    protected Rectangle bounds;
+    public void reset(float x, float y) {
+        store.reset(id, this, x, y);
+    }
+
     /**
-     * The alive field will tell whether a entity is active or
-     * has been killed which is inactive
+     * Takes the entity out of its store's systems until it is reset.
      */
-    protected boolean alive = false;
-    protected boolean attacking = false;
-    protected boolean defending = false;
-    protected boolean running = false;
-    protected boolean jumping = false;
-    protected boolean hit = false;
-    protected boolean up = false;
-    protected boolean down = false;
-    protected boolean left = false;
-    protected boolean right = false;
-
-    public BaseEntity(Handler handler, float x, float y, int width, int height) {
-        this.handler = handler;
-        this.x = x;
-        this.y = y;
-        this.width = width;
-        this.height = height;
-        this.bounds = new Rectangle(0, 0, width, height);
-        this.velX = 0.0f;
-        this.velY = 0.0f;
+    void park() {
+        store.park(id);
     }
 
+    /**
+     * Sets the velocity from the direction flags, see
+     * {@link MovementSystem#steer}.
+     */
     public void move() {
-        setVelocity(0, 0);
-        if (isUp()) {
-            setVelY(getVelY() - ACCELERATION);
-            if (getVelY() < -MAX_SPEED) {
-                setVelY(-MAX_SPEED);
-            }
-        } else {
-            if (getVelY() < 0) {
-                setVelY(getVelY() + DECELERATION);
-                if (getVelY() > 0) {
-                    setVelY(0);
-                }
-            }
-        }
-        if (isDown()) {
-            setVelY(getVelY() + ACCELERATION);
-            if (getVelY() > MAX_SPEED) {
-                setVelY(MAX_SPEED);
-            }
-        } else {
-            if (getVelY() > 0) {
-                setVelY(getVelY() - DECELERATION);
-                if (getVelY() < 0) {
-                    setVelY(0);
-                }
-            }
-        }
-        if (isLeft()) {
-            setVelX(getVelX() - ACCELERATION);
-            if (getVelX() < -MAX_SPEED) {
-                setVelX(-MAX_SPEED);
-            }
-        } else {
-            if (getVelX() < 0) {
-                setVelX(getVelX() + DECELERATION);
-                if (getVelX() > 0) {
-                    setVelX(0);
-                }
-            }
-        }
-        if (isRight()) {
-            setVelX(getVelX() + ACCELERATION);
-            if (getVelX() > MAX_SPEED) {
-                setVelX(MAX_SPEED);
-            }
-        } else {
-            if (getVelX() > 0) {
-                setVelX(getVelX() - DECELERATION);
-                if (getVelX() < 0) {
-                    setVelX(0);
-                }
-            }
-        }
+        MovementSystem.steer(store, id);
     }
 
     /**
@@ -142,6 +73,19 @@ public abstract class BaseEntity implements Attributes {
      */
     public abstract void update();
 
+    /**
+     * Decides what the entity does this tick, on a worker thread of
+     * {@link ParallelUpdater} before anything moves. It may change
+     * its own velocity, flags, state and fields, may read the
+     * positions and bounds of others, which stay put until every
+     * entity has acted, and must buffer anything it does to another
+     * entity in effects. Read others only through accessors that
+     * write nothing, such as getX, getY and getBounds, or through
+     * the {@link SpatialHash}.
+     */
+    public void act(EntityEffects effects) {
+    }
+
     /**
      * This method handles all the graphical code
      * that draws images to the window.
@@ -149,22 +93,92 @@ public abstract class BaseEntity implements Attributes {
      */
     public abstract void render(Graphics2D g);
 
+    /**
+     * Draws the entity between its previous and current position.
+     * By default the alpha is ignored.
+     * @param g is the Graphics object
+     * @param alpha is the interpolation between updates
+     */
+    public void render(Graphics2D g, float alpha) {
+        render(g);
+    }
+
+    /**
+     * Queues the entity between its previous and current position.
+     * By default nothing is drawn.
+     * @param queue is the render queue
+     * @param alpha is the interpolation between updates
+     */
+    public void render(RenderQueue queue, float alpha) {
+    }
+
+    /**
+     * Adds what the render thread needs to draw the entity to the
+     * snapshot. By default nothing is added.
+     * @param snapshot is the snapshot to fill
+     */
+    public void captureSnapshot(FrameSnapshot snapshot) {
+    }
+
+    /**
+     * Remembers the current position as the previous one. Should
+     * be called once at the start of every update.
+     */
+    public void storePreviousPosition() {
+        store.prevX[id] = store.x[id];
+        store.prevY[id] = store.y[id];
+    }
+
+    /**
+     * The position along the X-axis interpolated between the
+     * previous and the current update
+     */
+    public float getLerpX(float alpha) {
+        return store.prevX[id] + (store.x[id] - store.prevX[id]) * alpha;
+    }
+
+    /**
+     * The position along the Y-axis interpolated between the
+     * previous and the current update
+     */
+    public float getLerpY(float alpha) {
+        return store.prevY[id] + (store.y[id] - store.prevY[id]) * alpha;
+    }
+
     /**
      * This method handles all the code needed for
      * managing memory.
      */
     public abstract void cleanUp();
 
+    /**
+     * The collision bounds relative to the position. The rectangle
+     * is a copy, change the bounds with setEntityBounds.
+     */
     public Rectangle getBounds() {
-        return bounds;
+        return new Rectangle(store.boundsX[id], store.boundsY[id], store.boundsWidth[id], store.boundsHeight[id]);
     }
 
     public void setEntityBounds(int x, int y, int width, int height) {
-        bounds = new Rectangle(x, y, width, height);
+        store.boundsX[id] = x;
+        store.boundsY[id] = y;
+        store.boundsWidth[id] = width;
+        store.boundsHeight[id] = height;
     }
 
     public void setBounds(Rectangle bounds) {
-        this.bounds.setBounds(bounds);
+        setEntityBounds(bounds.x, bounds.y, bounds.width, bounds.height);
+    }
+
+    /**
+     * The entity's id in its store.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public EntityStore getStore() {
+        return store;
     }
 
     /**
@@ -172,11 +186,11 @@ public abstract class BaseEntity implements Attributes {
      * coordinate plane
      */
     public float getX() {
-        return x;
+        return store.x[id];
     }
 
     public void setX(float x) {
-        this.x = x;
+        store.x[id] = x;
     }
 
     /**
@@ -184,11 +198,11 @@ public abstract class BaseEntity implements Attributes {
      * coordinate plane
      */
     public float getY() {
-        return y;
+        return store.y[id];
     }
 
     public void setY(float y) {
-        this.y = y;
+        store.y[id] = y;
     }
 
     public void setPosition(float x, float y) {
@@ -200,22 +214,22 @@ public abstract class BaseEntity implements Attributes {
      * Move Angle indicates direction entity is moving
      */
     public float getMoveAngle() {
-        return moveAngle;
+        return store.moveAngle[id];
     }
 
     public void setMoveAngle(float moveAngle) {
-        this.moveAngle = moveAngle;
+        store.moveAngle[id] = moveAngle;
     }
 
     /**
      * Face Angle indicates which direction entity is facing
      */
     public float getFaceAngle() {
-        return faceAngle;
+        return store.faceAngle[id];
     }
 
     public void setFaceAngle(float faceAngle) {
-        this.faceAngle = faceAngle;
+        store.faceAngle[id] = faceAngle;
     }
 
     /**
@@ -223,11 +237,11 @@ public abstract class BaseEntity implements Attributes {
      * has been killed which is inactive
      */
     public boolean isAlive() {
-        return alive;
+        return store.hasFlag(id, EntityStore.ALIVE);
     }
 
     public void setAlive(boolean alive) {
-        this.alive = alive;
+        store.setFlag(id, EntityStore.ALIVE, alive);
     }
 
     public Handler getHandler() {
@@ -242,22 +256,22 @@ public abstract class BaseEntity implements Attributes {
      * The directional movement along the X-axis
      */
     public float getVelX() {
-        return velX;
+        return store.velX[id];
     }
 
     public void setVelX(float velX) {
-        this.velX = velX;
+        store.velX[id] = velX;
     }
 
     /**
      * The directional movement along the Y-axis
      */
     public float getVelY() {
-        return velY;
+        return store.velY[id];
     }
 
     public void setVelY(float velY) {
-        this.velY = velY;
+        store.velY[id] = velY;
     }
 
     public void setVelocity(float x, float y) {
@@ -269,22 +283,22 @@ public abstract class BaseEntity implements Attributes {
      * The total size of the entity along the x-axis
      */
     public int getWidth() {
-        return width;
+        return store.width[id];
     }
 
     public void setWidth(int width) {
-        this.width = width;
+        store.width[id] = width;
     }
 
     /**
      * The total size of the entity along the y-axis
      */
     public int getHeight() {
-        return height;
+        return store.height[id];
     }
 
     public void setHeight(int height) {
-        this.height = height;
+        store.height[id] = height;
     }
 
     public void setSize(int width, int height) {
@@ -294,77 +308,77 @@ public abstract class BaseEntity implements Attributes {
 
     public boolean isAttacking() {
         setDefending(false);
-        return attacking;
+        return store.hasFlag(id, EntityStore.ATTACKING);
     }
 
     public void setAttacking(boolean attacking) {
-        this.attacking = attacking;
+        store.setFlag(id, EntityStore.ATTACKING, attacking);
     }
 
     public boolean isDefending() {
         setAttacking(false);
-        return defending;
+        return store.hasFlag(id, EntityStore.DEFENDING);
     }
 
     public void setDefending(boolean defending) {
-        this.defending = defending;
+        store.setFlag(id, EntityStore.DEFENDING, defending);
     }
 
     public boolean isRunning() {
         setJumping(false);
-        return running;
+        return store.hasFlag(id, EntityStore.RUNNING);
     }
 
     public void setRunning(boolean running) {
-        this.running = running;
+        store.setFlag(id, EntityStore.RUNNING, running);
     }
 
     public boolean isJumping() {
         setRunning(false);
-        return jumping;
+        return store.hasFlag(id, EntityStore.JUMPING);
     }
 
     public void setJumping(boolean jumping) {
-        this.jumping = jumping;
+        store.setFlag(id, EntityStore.JUMPING, jumping);
     }
 
     public boolean isHit() {
-        return hit;
+        return store.hasFlag(id, EntityStore.HIT);
     }
 
     public void setHit(boolean hit) {
-        this.hit = hit;
+        store.setFlag(id, EntityStore.HIT, hit);
     }
 
     public boolean isUp() {
-        return up;
+        return store.hasFlag(id, EntityStore.UP);
     }
 
     public void setUp(boolean up) {
-        this.up = up;
+        store.setFlag(id, EntityStore.UP, up);
     }
 
     public boolean isDown() {
-        return down;
+        return store.hasFlag(id, EntityStore.DOWN);
     }
 
     public void setDown(boolean down) {
-        this.down = down;
+        store.setFlag(id, EntityStore.DOWN, down);
     }
 
     public boolean isLeft() {
-        return left;
+        return store.hasFlag(id, EntityStore.LEFT);
     }
 
     public void setLeft(boolean left) {
-        this.left = left;
+        store.setFlag(id, EntityStore.LEFT, left);
     }
 
     public boolean isRight() {
-        return right;
+        return store.hasFlag(id, EntityStore.RIGHT);
     }
 
     public void setRight(boolean right) {
-        this.right = right;
+        store.setFlag(id, EntityStore.RIGHT, right);
     }
 }
@@ -1,6 +1,5 @@
 package entities;
 
-import tiles.Tile;
 import utils.Handler;
 
 public abstract class Creature extends BaseEntity implements Attributes {
@@ -11,16 +10,23 @@ public abstract class Creature extends BaseEntity implements Attributes {
     protected float run;
     protected float defensiveStrength;
     protected float attackPower;
-    protected int state;
-    protected long stateTime;
-    protected boolean collided;
 
-    public Creature(Handler handler, float x, float y, int width, int height) {
-        super(handler, x, y, width, height);
+    public Creature(Handler handler, EntityStore store, float x, float y, int width, int height) {
+        super(handler, store, x, y, width, height);
         this.health = DEFAULT_HEALTH;
         this.speed = DEFAULT_SPEED;
         this.run = RUNNING_SPEED;
-        this.state = STATE_NORMAL;
+    }
+
+    @Override
+    public void reset(float x, float y) {
+        super.reset(x, y);
+        health = DEFAULT_HEALTH;
+        speed = DEFAULT_SPEED;
+        jump = 0;
+        run = RUNNING_SPEED;
+        defensiveStrength = 0;
+        attackPower = 0;
     }
 
     @Override
@@ -30,46 +36,13 @@ public abstract class Creature extends BaseEntity implements Attributes {
         this.attackPower = attackPower;
     }
 
+    /**
+     * Moves the creature by its velocity, stopping it against solid
+     * tiles. Creatures in the world's store are moved by
+     * {@link MovementSystem} instead.
+     */
     public void updatePosition() {
-        if (velX > 0) { // Moving right
-            int tx = (int) (x + velX + bounds.x + bounds.width) / Tile.TILE_SIZE;
-
-            if (!hasCollisionWithTile(tx, (int) (y + bounds.y) / Tile.TILE_SIZE)
-                    && !hasCollisionWithTile(tx, (int) (y + bounds.y + bounds.height) / Tile.TILE_SIZE)) {
-                x += velX;
-            } else {
-                x = tx * Tile.TILE_SIZE - bounds.x - bounds.width - 1;
-            }
-        } else if (velX < 0) { // Moving left
-            int tx = (int) (x + velX + bounds.x) / Tile.TILE_SIZE;
-
-            if (!hasCollisionWithTile(tx, (int) (y + bounds.y) / Tile.TILE_SIZE)
-                    && !hasCollisionWithTile(tx, (int) (y + bounds.y + bounds.height) / Tile.TILE_SIZE)) {
-                x += velX;
-            } else {
-                x = tx * Tile.TILE_SIZE + Tile.TILE_SIZE - bounds.x;
-            }
-        }
-
-        if (velY < 0) { // Moving up
-            int ty = (int) (y + velY + bounds.y) / Tile.TILE_SIZE;
-
-            if (!hasCollisionWithTile((int) (x + bounds.x) / Tile.TILE_SIZE, ty)
-                    && !hasCollisionWithTile((int) (x + bounds.x + bounds.width) / Tile.TILE_SIZE, ty)) {
-                y += velY;
-            } else {
-                y = ty * Tile.TILE_SIZE + Tile.TILE_SIZE - bounds.y;
-            }
-        } else if (velY > 0) { // Moving down
-            int ty = (int) (y + velY + bounds.y + bounds.height) / Tile.TILE_SIZE;
-
-            if (!hasCollisionWithTile((int) (x + bounds.x) / Tile.TILE_SIZE, ty)
-                    && !hasCollisionWithTile((int) (x + bounds.x + bounds.width) / Tile.TILE_SIZE, ty)) {
-                y += velY;
-            } else {
-                y = ty * Tile.TILE_SIZE - bounds.y - bounds.height - 1;
-            }
-        }
+        MovementSystem.move(store, id, handler.getWorld());
     }
 
     /**
@@ -77,21 +50,17 @@ public abstract class Creature extends BaseEntity implements Attributes {
      on screen. Normally, the creature starts moving left.
      */
     public void wakeUp() {
-        if (state == STATE_NORMAL && velX == 0) {
-            velX = -MAX_SPEED;
+        if (getState() == STATE_NORMAL && getVelX() == 0) {
+            setVelX(-MAX_SPEED);
         }
     }
 
-    protected boolean hasCollisionWithTile(int x, int y) {
-        return handler.getWorld().getTile(x, y).isSolid();
-    }
-
     /**
      Gets the state of this Creature. The state is either
      STATE_NORMAL, STATE_DYING, or STATE_DEAD.
      */
     public int getState() {
-        return state;
+        return store.state[id];
     }
 
     /**
@@ -99,20 +68,19 @@ public abstract class Creature extends BaseEntity implements Attributes {
      STATE_DYING, or STATE_DEAD.
      */
     public void setState(int state) {
-        if (this.state != state) {
-            this.state = state;
-            stateTime = 0;
+        if (store.state[id] != state) {
+            store.state[id] = state;
+            store.stateTime[id] = 0;
             if (state == STATE_DYING) {
-                velX = 0;
-                velY = 0;
+                setVelocity(0, 0);
             }
         }
     }
 
     public void updateDeadState(long elapsedTime) {
         // update to "dead" state
-        stateTime += elapsedTime;
-        if (state == STATE_DYING && stateTime >= DIE_TIME) {
+        store.stateTime[id] += elapsedTime;
+        if (store.state[id] == STATE_DYING && store.stateTime[id] >= DIE_TIME) {
             setState(STATE_DEAD);
         }
     }
@@ -135,6 +103,19 @@ public abstract class Creature extends BaseEntity implements Attributes {
     }
 
 
+    /**
+     * Takes health and flags the creature {@link EntityStore#HIT};
+     * a creature left with none starts dying.
+     */
+    public void damage(float amount) {
+        health -= amount;
+        store.setFlag(id, EntityStore.HIT, true);
+
+        if (health <= 0 && getState() == STATE_NORMAL) {
+            setState(STATE_DYING);
+        }
+    }
+
     public float getHealth() {
         return health;
     }
@@ -183,11 +164,32 @@ public abstract class Creature extends BaseEntity implements Attributes {
         this.attackPower = attackPower;
     }
 
+    /**
+     * Whether the creature ran into a solid tile in its last move.
+     */
     public boolean isCollided() {
-        return collided;
+        return store.hasFlag(id, EntityStore.COLLIDED);
     }
 
     public void setCollided(boolean collided) {
-        this.collided = collided;
+        store.setFlag(id, EntityStore.COLLIDED, collided);
+    }
+
+    /**
+     * The x of the contact normal of the last move: 1 when the
+     * creature ran into a tile on its left, -1 on its right, 0 when
+     * it hit nothing along x.
+     */
+    public int getNormalX() {
+        return store.normalX[id];
+    }
+
+    /**
+     * The y of the contact normal of the last move: 1 when the
+     * creature ran into a tile above it, -1 below it, 0 when it hit
+     * nothing along y.
+     */
+    public int getNormalY() {
+        return store.normalY[id];
     }
 }
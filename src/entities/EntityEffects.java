@@ -0,0 +1,88 @@
+package entities;
+
+import java.util.Arrays;
+
+/**
+ * What entities do to each other during the parallel phase of
+ * {@link ParallelUpdater}, buffered instead of applied, since the
+ * target may be updating on another thread. Each partition fills
+ * its own buffer; the buffers are applied one after another in
+ * partition order once every partition is done, so the outcome does
+ * not depend on which thread ran what.
+ */
+public final class EntityEffects {
+
+    public static final int DAMAGE = 0;
+    public static final int PUSH = 1;
+
+    private int count = 0;
+    private int[] type = new int[16];
+    private int[] target = new int[16];
+    private float[] a = new float[16];
+    private float[] b = new float[16];
+
+    /**
+     * Takes health from a {@link Creature}, see
+     * {@link Creature#damage}.
+     */
+    public void damage(int target, float amount) {
+        add(DAMAGE, target, amount, 0);
+    }
+
+    /**
+     * Moves the target by dx and dy on top of its velocity in the
+     * movement of this tick, against the solid tiles like the rest
+     * of the move. The velocity itself is left alone.
+     */
+    public void push(int target, float dx, float dy) {
+        add(PUSH, target, dx, dy);
+    }
+
+    private void add(int type, int target, float a, float b) {
+        if (count == this.type.length) {
+            int size = count * 2;
+            this.type = Arrays.copyOf(this.type, size);
+            this.target = Arrays.copyOf(this.target, size);
+            this.a = Arrays.copyOf(this.a, size);
+            this.b = Arrays.copyOf(this.b, size);
+        }
+        this.type[count] = type;
+        this.target[count] = target;
+        this.a[count] = a;
+        this.b[count] = b;
+        count++;
+    }
+
+    /**
+     * Applies the effects in the order they were added and empties
+     * the buffer. Effects on entities removed since are dropped.
+     */
+    void apply(EntityStore store) {
+        for (int i = 0; i < count; i++) {
+            int id = target[i];
+
+            if (!store.isUsed(id)) {
+                continue;
+            }
+            switch (type[i]) {
+                case DAMAGE:
+                    if (store.get(id) instanceof Creature) {
+                        ((Creature) store.get(id)).damage(a[i]);
+                    }
+                    break;
+                case PUSH:
+                    store.pushX[id] += a[i];
+                    store.pushY[id] += b[i];
+                    break;
+            }
+        }
+        count = 0;
+    }
+
+    /**
+     * The number of effects buffered.
+     */
+    public int size() {
+        return count;
+    }
+}
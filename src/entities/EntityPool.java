@@ -0,0 +1,61 @@
+package entities;
+
+import utils.Pool;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link Pool} of entities. A released entity is parked in its
+ * store, out of the systems, the spatial hash and the world's
+ * loops, but keeps its id and view; acquiring it again resets it in
+ * place with {@link BaseEntity#reset}. The factory decides the
+ * store, normally the world's.
+ */
+public class EntityPool<T extends BaseEntity> extends Pool<T> {
+
+    public EntityPool(String name, Supplier<T> factory, int maxIdle) {
+        super(name, factory, entity -> entity.reset(entity.getX(), entity.getY()), maxIdle);
+    }
+
+    /**
+     * An entity reset at the given position.
+     */
+    public T acquire(float x, float y) {
+        T entity = acquire();
+        entity.setPosition(x, y);
+        entity.storePreviousPosition();
+        return entity;
+    }
+
+    /**
+     * Takes an entity back, parking it in its store.
+     *
+     * @throws IllegalStateException when it was already released
+     */
+    @Override
+    public void release(T entity) {
+        if (!entity.getStore().isUsed(entity.getId())) {
+            throw new IllegalStateException(getName() + ": entity " + entity.getId() + " was already released");
+        }
+        entity.park();
+        super.release(entity);
+    }
+
+    /**
+     * Gives the id of an entity the pool has no room for back to
+     * its store.
+     */
+    @Override
+    protected void discard(T entity) {
+        entity.getStore().remove(entity.getId());
+    }
+
+    /**
+     * An entity removed from its store while pooled has lost its id
+     * and is dropped.
+     */
+    @Override
+    protected boolean isReusable(T entity) {
+        return entity.getStore().isParked(entity);
+    }
+}
@@ -0,0 +1,276 @@
+package entities;
+
+import java.util.Arrays;
+
+/**
+ * The hot data of every entity, in parallel arrays indexed by the
+ * entity's id: position, previous position, velocity, size, bounds,
+ * angles, flags, state and animation time. Systems such as
+ * {@link MovementSystem} and {@link AnimationSystem} sweep the
+ * arrays from the first id to the last, and a {@link BaseEntity} is
+ * a view that reads and writes its own slot.
+ * <p>
+ * Ids stay the same for the life of an entity. The id of a removed
+ * entity is reused by the next one created; until then its slot is
+ * skipped by the systems. A parked entity is skipped the same way
+ * but keeps its id and view, for {@link EntityPool} to reset and
+ * reuse, until it is removed.
+ */
+public final class EntityStore {
+
+    /**
+     * The slot holds an entity.
+     */
+    public static final int USED = 1;
+    public static final int ALIVE = 1 << 1;
+    public static final int ATTACKING = 1 << 2;
+    public static final int DEFENDING = 1 << 3;
+    public static final int RUNNING = 1 << 4;
+    public static final int JUMPING = 1 << 5;
+    public static final int HIT = 1 << 6;
+    public static final int UP = 1 << 7;
+    public static final int DOWN = 1 << 8;
+    public static final int LEFT = 1 << 9;
+    public static final int RIGHT = 1 << 10;
+    /**
+     * The entity ran into a solid tile in its last move.
+     */
+    public static final int COLLIDED = 1 << 11;
+    /**
+     * The velocity comes from the UP, DOWN, LEFT and RIGHT flags,
+     * see {@link MovementSystem#steer}.
+     */
+    public static final int STEERED = 1 << 12;
+    /**
+     * The slot is kept for a pooled entity, which is not USED until
+     * it is reset.
+     */
+    public static final int PARKED = 1 << 13;
+
+    private int size = 0;
+    private int count = 0;
+    private int[] free = new int[8];
+    private int freeCount = 0;
+
+    private BaseEntity[] views;
+    float[] x, y, prevX, prevY, velX, velY;
+    /**
+     * Moved on top of the velocity in the next move only, see
+     * {@link EntityEffects#push}.
+     */
+    float[] pushX, pushY;
+    float[] moveAngle, faceAngle;
+    int[] width, height;
+    int[] boundsX, boundsY, boundsWidth, boundsHeight;
+    int[] flags;
+    /**
+     * The contact normal of the last move, -1, 0 or 1 on each axis,
+     * pointing away from the solid tiles the entity ran into.
+     */
+    int[] normalX, normalY;
+    int[] state;
+    long[] stateTime;
+    /**
+     * Nanoseconds of animation played.
+     */
+    long[] animationTime;
+
+    public EntityStore() {
+        this(16);
+    }
+
+    public EntityStore(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    private void allocate(int capacity) {
+        views = views == null ? new BaseEntity[capacity] : Arrays.copyOf(views, capacity);
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        prevX = grow(prevX, capacity);
+        prevY = grow(prevY, capacity);
+        velX = grow(velX, capacity);
+        velY = grow(velY, capacity);
+        pushX = grow(pushX, capacity);
+        pushY = grow(pushY, capacity);
+        moveAngle = grow(moveAngle, capacity);
+        faceAngle = grow(faceAngle, capacity);
+        width = grow(width, capacity);
+        height = grow(height, capacity);
+        boundsX = grow(boundsX, capacity);
+        boundsY = grow(boundsY, capacity);
+        boundsWidth = grow(boundsWidth, capacity);
+        boundsHeight = grow(boundsHeight, capacity);
+        flags = grow(flags, capacity);
+        normalX = grow(normalX, capacity);
+        normalY = grow(normalY, capacity);
+        state = grow(state, capacity);
+        stateTime = stateTime == null ? new long[capacity] : Arrays.copyOf(stateTime, capacity);
+        animationTime = animationTime == null ? new long[capacity] : Arrays.copyOf(animationTime, capacity);
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    /**
+     * Gives the entity a slot at the given position and size, with
+     * bounds covering the whole entity.
+     *
+     * @return the entity's id
+     */
+    int create(BaseEntity view, float x, float y, int width, int height) {
+        int id;
+
+        if (freeCount > 0) {
+            id = free[--freeCount];
+        } else {
+            if (size == views.length) {
+                allocate(size * 2);
+            }
+            id = size++;
+        }
+        init(id, view, x, y, width, height);
+        count++;
+        return id;
+    }
+
+    /**
+     * Puts a parked entity back in its slot as if it were created
+     * again, keeping its size and bounds.
+     *
+     * @throws IllegalStateException when the entity was removed
+     */
+    void reset(int id, BaseEntity view, float x, float y) {
+        int boundsX = this.boundsX[id], boundsY = this.boundsY[id];
+        int boundsWidth = this.boundsWidth[id], boundsHeight = this.boundsHeight[id];
+
+        if (views[id] != view) {
+            throw new IllegalStateException("Entity " + id + " was removed from its store");
+        }
+        if (isParked(view)) {
+            count++;
+        }
+        init(id, view, x, y, width[id], height[id]);
+        setBounds(id, boundsX, boundsY, boundsWidth, boundsHeight);
+    }
+
+    private void setBounds(int id, int x, int y, int width, int height) {
+        boundsX[id] = x;
+        boundsY[id] = y;
+        boundsWidth[id] = width;
+        boundsHeight[id] = height;
+    }
+
+    private void init(int id, BaseEntity view, float x, float y, int width, int height) {
+        views[id] = view;
+        this.x[id] = x;
+        this.y[id] = y;
+        prevX[id] = x;
+        prevY[id] = y;
+        velX[id] = 0;
+        velY[id] = 0;
+        pushX[id] = 0;
+        pushY[id] = 0;
+        moveAngle[id] = 0;
+        faceAngle[id] = 0;
+        this.width[id] = width;
+        this.height[id] = height;
+        setBounds(id, 0, 0, width, height);
+        flags[id] = USED;
+        normalX[id] = 0;
+        normalY[id] = 0;
+        state[id] = Attributes.STATE_NORMAL;
+        stateTime[id] = 0;
+        animationTime[id] = 0;
+    }
+
+    /**
+     * Frees the slot of an entity, parked or not. Its view must not
+     * be used after.
+     */
+    public void remove(int id) {
+        if (isUsed(id)) {
+            count--;
+        } else if (id < 0 || id >= size || (flags[id] & PARKED) == 0) {
+            return;
+        }
+        views[id] = null;
+        flags[id] = 0;
+
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = id;
+    }
+
+    /**
+     * Takes an entity out of the systems and queries like remove,
+     * but keeps its id for it, so a pool can bring the same view
+     * back with {@link #reset}.
+     */
+    void park(int id) {
+        if (isUsed(id)) {
+            flags[id] = PARKED;
+            count--;
+        }
+    }
+
+    /**
+     * Whether the view is parked in its slot, and was not removed
+     * since.
+     */
+    boolean isParked(BaseEntity view) {
+        return (flags[view.id] & PARKED) != 0 && views[view.id] == view;
+    }
+
+    /**
+     * Remembers every position as the previous one, once at the
+     * start of an update.
+     */
+    public void storePreviousPositions() {
+        System.arraycopy(x, 0, prevX, 0, size);
+        System.arraycopy(y, 0, prevY, 0, size);
+    }
+
+    public boolean isUsed(int id) {
+        return id >= 0 && id < size && (flags[id] & USED) != 0;
+    }
+
+    public boolean hasFlag(int id, int flag) {
+        return (flags[id] & flag) != 0;
+    }
+
+    public void setFlag(int id, int flag, boolean set) {
+        flags[id] = set ? flags[id] | flag : flags[id] & ~flag;
+    }
+
+    /**
+     * The view of an id, or null for a free or parked slot.
+     */
+    public BaseEntity get(int id) {
+        return isUsed(id) ? views[id] : null;
+    }
+
+    /**
+     * One more than the largest id in use; systems sweep up to it.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The number of entities.
+     */
+    public int count() {
+        return count;
+    }
+
+    public int capacity() {
+        return views.length;
+    }
+}
@@ -0,0 +1,192 @@
+package entities;
+
+import tiles.CollisionLayer;
+import tiles.Tile;
+import tiles.World;
+
+/**
+ * Moves entities by their velocity, stopping them against solid
+ * tiles. Entities flagged {@link EntityStore#STEERED} first take
+ * their velocity from their direction flags. {@link ParallelUpdater}
+ * runs both steps over every entity of a store.
+ */
+public final class MovementSystem {
+
+    private MovementSystem() {
+    }
+
+    /**
+     * Sets the velocity of an entity from its direction flags:
+     * {@link Attributes#ACCELERATION} towards each direction held, so opposite
+     * directions cancel out.
+     */
+    public static void steer(EntityStore store, int id) {
+        int flags = store.flags[id];
+        float velX = 0;
+        float velY = 0;
+
+        if ((flags & EntityStore.UP) != 0) {
+            velY -= Attributes.ACCELERATION;
+        }
+        if ((flags & EntityStore.DOWN) != 0) {
+            velY += Attributes.ACCELERATION;
+        }
+        if ((flags & EntityStore.LEFT) != 0) {
+            velX -= Attributes.ACCELERATION;
+        }
+        if ((flags & EntityStore.RIGHT) != 0) {
+            velX += Attributes.ACCELERATION;
+        }
+        store.velX[id] = Math.max(-Attributes.MAX_SPEED, Math.min(Attributes.MAX_SPEED, velX));
+        store.velY[id] = Math.max(-Attributes.MAX_SPEED, Math.min(Attributes.MAX_SPEED, velY));
+    }
+
+    /**
+     * Moves one entity by its velocity plus the push it took this
+     * tick, which is used up, along x and then along y, sweeping its bounds
+     * through every tile they cross on the way, so no speed or size
+     * lets it pass through a solid tile. An axis that runs into one
+     * stops the bounds flush against it, the other axis still moves,
+     * so the entity slides along walls. The entity is flagged
+     * {@link EntityStore#COLLIDED} and its contact normal, pointing
+     * away from the tiles it hit, is kept in the store. Solid tiles
+     * the bounds already overlap do not stop it, so an entity placed
+     * in a wall can walk out.
+     */
+    public static void move(EntityStore store, int id, World world) {
+        move(store, id, world, world.getCollision());
+    }
+
+    static void move(EntityStore store, int id, World world, CollisionLayer collision) {
+        float velX = store.velX[id] + store.pushX[id];
+        float velY = store.velY[id] + store.pushY[id];
+        store.pushX[id] = 0;
+        store.pushY[id] = 0;
+        float left = store.x[id] + store.boundsX[id];
+        float top = store.y[id] + store.boundsY[id];
+        int width = store.boundsWidth[id];
+        int height = store.boundsHeight[id];
+        float newLeft = sweepX(world, collision, left, top, width, height, velX);
+        float newTop = sweepY(world, collision, newLeft, top, width, height, velY);
+        int normalX = newLeft != left + velX ? -(int) Math.signum(velX) : 0;
+        int normalY = newTop != top + velY ? -(int) Math.signum(velY) : 0;
+        // Set rather than added, so a box stopped at a tile sits exactly on its edge
+        store.x[id] = newLeft - store.boundsX[id];
+        store.y[id] = newTop - store.boundsY[id];
+        store.normalX[id] = normalX;
+        store.normalY[id] = normalY;
+        store.setFlag(id, EntityStore.COLLIDED, normalX != 0 || normalY != 0);
+    }
+
+    /**
+     * Moves a box along x until it touches a solid tile, checking
+     * every column of tiles its leading edge crosses in the rows it
+     * covers. Bounds cover their left and top edge but not their
+     * right and bottom one, so a box stopped at a tile touches it
+     * without a gap.
+     *
+     * @return the left edge after the move, left + dx unless a solid
+     *         tile is in the way
+     */
+    public static float sweepX(World world, float left, float top, float width, float height, float dx) {
+        return sweepX(world, world.getCollision(), left, top, width, height, dx);
+    }
+
+    static float sweepX(World world, CollisionLayer collision, float left, float top, float width, float height, float dx) {
+        if (dx == 0) {
+            return left;
+        }
+        int row0 = floorTile(top);
+        int row1 = Math.max(row0, ceilTile(top + height) - 1);
+
+        if (dx > 0) {
+            float right = left + width;
+
+            for (int column = ceilTile(right); column < ceilTile(right + dx); column++) {
+                if (isSolidColumn(world, collision, column, row0, row1)) {
+                    return column * Tile.TILE_SIZE - width;
+                }
+            }
+        } else {
+            for (int column = floorTile(left) - 1; column >= floorTile(left + dx); column--) {
+                if (isSolidColumn(world, collision, column, row0, row1)) {
+                    return (column + 1) * Tile.TILE_SIZE;
+                }
+            }
+        }
+        return left + dx;
+    }
+
+    /**
+     * Moves a box along y until it touches a solid tile, see
+     * {@link #sweepX}.
+     *
+     * @return the top edge after the move, top + dy unless a solid
+     *         tile is in the way
+     */
+    public static float sweepY(World world, float left, float top, float width, float height, float dy) {
+        return sweepY(world, world.getCollision(), left, top, width, height, dy);
+    }
+
+    static float sweepY(World world, CollisionLayer collision, float left, float top, float width, float height, float dy) {
+        if (dy == 0) {
+            return top;
+        }
+        int column0 = floorTile(left);
+        int column1 = Math.max(column0, ceilTile(left + width) - 1);
+
+        if (dy > 0) {
+            float bottom = top + height;
+
+            for (int row = ceilTile(bottom); row < ceilTile(bottom + dy); row++) {
+                if (isSolidRow(world, collision, row, column0, column1)) {
+                    return row * Tile.TILE_SIZE - height;
+                }
+            }
+        } else {
+            for (int row = floorTile(top) - 1; row >= floorTile(top + dy); row--) {
+                if (isSolidRow(world, collision, row, column0, column1)) {
+                    return (row + 1) * Tile.TILE_SIZE;
+                }
+            }
+        }
+        return top + dy;
+    }
+
+    private static int floorTile(float position) {
+        return (int) Math.floor(position / Tile.TILE_SIZE);
+    }
+
+    private static int ceilTile(float position) {
+        return (int) Math.ceil(position / Tile.TILE_SIZE);
+    }
+
+    private static boolean isSolidColumn(World world, CollisionLayer collision, int column, int row0, int row1) {
+        for (int row = row0; row <= row1; row++) {
+            if (isSolid(world, collision, column, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSolidRow(World world, CollisionLayer collision, int row, int column0, int column1) {
+        for (int column = column0; column <= column1; column++) {
+            if (isSolid(world, collision, column, row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the world's collision bitmask straight away, falling
+     * back to the world in a streamed world, which has none.
+     */
+    private static boolean isSolid(World world, CollisionLayer collision, int x, int y) {
+        if (collision != null) {
+            return collision.isSolid(x, y);
+        }
+        return world.isSolid(x, y);
+    }
+}
@@ -0,0 +1,196 @@
+package entities;
+
+import tiles.CollisionLayer;
+import tiles.World;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Updates the entities of a store on a fork/join pool. The entities
+ * are grouped into partitions of {@link #PARTITION_CELLS} by
+ * {@link #PARTITION_CELLS} spatial cells, and each tick runs in
+ * three steps:
+ * <ol>
+ * <li>every entity is steered and {@link BaseEntity#act acts},
+ * partitions in parallel, buffering what it does to others in the
+ * {@link EntityEffects} of its partition;</li>
+ * <li>the buffers are applied on the calling thread in partition
+ * order;</li>
+ * <li>every entity moves against the solid tiles, partitions in
+ * parallel.</li>
+ * </ol>
+ * Partitions and the entities within them are ordered by cell and
+ * id, never by thread, so a tick gives the same result bit for bit
+ * on any number of threads.
+ */
+public final class ParallelUpdater {
+
+    /**
+     * The width and height of a partition in cells.
+     */
+    public static final int PARTITION_CELLS = 8;
+    /**
+     * Fewer entities than this are updated on the calling thread, in
+     * the same order, since handing them to the pool costs more.
+     */
+    public static final int PARALLEL_THRESHOLD = 1024;
+    private static final int PARTITION_SIZE = SpatialHash.CELL_SIZE * PARTITION_CELLS;
+    /**
+     * Partitions are split between tasks until a task has about
+     * this many entities.
+     */
+    private static final int LEAF_ENTITIES = 512;
+
+    private final ForkJoinPool pool;
+    /**
+     * The partition of each entity in the high half and its id in
+     * the low half, sorted.
+     */
+    private long[] keys = new long[0];
+    private int entities = 0;
+    /**
+     * Where each partition starts in keys, one more than there are
+     * partitions.
+     */
+    private int[] starts = new int[1];
+    private int partitions = 0;
+    private EntityEffects[] effects = new EntityEffects[0];
+
+    public ParallelUpdater() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelUpdater(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void update(EntityStore store, World world) {
+        partition(store);
+        CollisionLayer collision = world.getCollision();
+        run(true, store, world, collision);
+
+        for (int p = 0; p < partitions; p++) {
+            effects[p].apply(store);
+        }
+        run(false, store, world, collision);
+    }
+
+    /**
+     * Sorts the entities by partition and id and finds where each
+     * partition starts.
+     */
+    private void partition(EntityStore store) {
+        if (keys.length < store.size()) {
+            keys = new long[store.capacity()];
+        }
+        entities = 0;
+
+        for (int id = 0; id < store.size(); id++) {
+            if ((store.flags[id] & EntityStore.USED) != 0) {
+                int px = Math.floorDiv((int) (store.x[id] + store.boundsX[id] + store.boundsWidth[id] / 2f), PARTITION_SIZE);
+                int py = Math.floorDiv((int) (store.y[id] + store.boundsY[id] + store.boundsHeight[id] / 2f), PARTITION_SIZE);
+                long partition = (py & 0xFFFFL) << 16 | (px & 0xFFFFL);
+                keys[entities++] = partition << 32 | id;
+            }
+        }
+        Arrays.sort(keys, 0, entities);
+        partitions = 0;
+
+        for (int i = 0; i < entities; i++) {
+            if (i == 0 || keys[i] >>> 32 != keys[i - 1] >>> 32) {
+                if (partitions + 1 >= starts.length) {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                }
+                starts[partitions++] = i;
+            }
+        }
+        starts[partitions] = entities;
+
+        if (effects.length < partitions) {
+            int old = effects.length;
+            effects = Arrays.copyOf(effects, Math.max(partitions, old * 2));
+
+            for (int p = old; p < effects.length; p++) {
+                effects[p] = new EntityEffects();
+            }
+        }
+    }
+
+    private void run(boolean act, EntityStore store, World world, CollisionLayer collision) {
+        if (entities < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+            update(act, store, world, collision, 0, partitions);
+        } else {
+            pool.invoke(new PartitionTask(act, store, world, collision, 0, partitions));
+        }
+    }
+
+    /**
+     * Runs one step for the partitions from start up to but not
+     * including end.
+     */
+    private void update(boolean act, EntityStore store, World world, CollisionLayer collision, int start, int end) {
+        for (int p = start; p < end; p++) {
+            for (int i = starts[p]; i < starts[p + 1]; i++) {
+                int id = (int) keys[i];
+
+                if (act) {
+                    if ((store.flags[id] & EntityStore.STEERED) != 0) {
+                        MovementSystem.steer(store, id);
+                    }
+                    BaseEntity entity = store.get(id);
+
+                    if (entity != null) {
+                        entity.act(effects[p]);
+                    }
+                } else if (store.velX[id] != 0 || store.velY[id] != 0 || store.pushX[id] != 0 || store.pushY[id] != 0) {
+                    MovementSystem.move(store, id, world, collision);
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of partitions holding entities in the last update.
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    private final class PartitionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean act;
+        private final EntityStore store;
+        private final World world;
+        private final CollisionLayer collision;
+        private final int start;
+        private final int end;
+
+        PartitionTask(boolean act, EntityStore store, World world, CollisionLayer collision, int start, int end) {
+            this.act = act;
+            this.store = store;
+            this.world = world;
+            this.collision = collision;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > 1 && starts[end] - starts[start] > LEAF_ENTITIES) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new PartitionTask(act, store, world, collision, start, middle),
+                        new PartitionTask(act, store, world, collision, middle, end));
+            } else {
+                update(act, store, world, collision, start, end);
+            }
+        }
+    }
+}
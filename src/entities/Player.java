@@ -1,6 +1,7 @@
 package entities;
 
-import graphics.Animation;
+import graphics.FrameSnapshot;
+import graphics.RenderQueue;
 import inputs.Keyboard;
 import inputs.Mouse;
 import textures.Assets;
@@ -11,17 +12,25 @@ import java.awt.image.BufferedImage;
 
 public class Player extends Creature {
 
+    /**
+     * How long each walking frame shows in milliseconds.
+     */
+    private static final long FRAME_TIME = 500;
 
-    private Animation animUp, animDown, animLeft, animRight;
-
-    public Player(Handler handler, float x, float y) {
-        super(handler, x, y, DEFAULT_ENTITY_WIDTH, DEFAULT_ENTITY_HEIGHT);
+    /**
+     * A player in the given store, moved and animated by the
+     * store's systems from its direction flags.
+     */
+    public Player(Handler handler, EntityStore store, float x, float y) {
+        super(handler, store, x, y, DEFAULT_ENTITY_WIDTH, DEFAULT_ENTITY_HEIGHT);
         setEntityBounds(22, 30, 20, 30);
+        store.setFlag(id, EntityStore.STEERED, true);
+    }
 
-        animUp = new Animation(handler, 500, Assets.vladWalking_up);
-        animDown = new Animation(handler, 500, Assets.vladWalking_down);
-        animLeft = new Animation(handler, 500, Assets.vladWalking_left);
-        animRight = new Animation(handler, 500, Assets.vladWalking_right);
+    @Override
+    public void reset(float x, float y) {
+        super.reset(x, y);
+        store.setFlag(id, EntityStore.STEERED, true);
     }
 
     /**
@@ -41,40 +50,19 @@ public class Player extends Creature {
         key.mapToKey(d_right, KeyEvent.VK_D);
         key.mapToKey(dir_right, KeyEvent.VK_RIGHT);
 
-        if (w_up.isPressed() || dir_up.isPressed()) {
-            up = true;
-        } else {
-            up = false;
-        }
-        if (s_down.isPressed() || dir_down.isPressed()) {
-            down = true;
-        } else {
-            down = false;
-        }
-        if (a_left.isPressed() || dir_left.isPressed()) {
-            left = true;
-        } else {
-            left = false;
-        }
-        if (d_right.isPressed() || dir_right.isPressed()) {
-            right = true;
-        } else {
-            right = false;
-        }
+        setUp(w_up.isPressed() || dir_up.isPressed());
+        setDown(s_down.isPressed() || dir_down.isPressed());
+        setLeft(a_left.isPressed() || dir_left.isPressed());
+        setRight(d_right.isPressed() || dir_right.isPressed());
         move();
     }
 
     /**
-     * This method handles all the code used for
-     * updating variables from that class.
+     * Centers the camera on the player. Moving and animating the
+     * player is done by the systems of its store.
      */
     @Override
     public void update() {
-        animUp.update();
-        animDown.update();
-        animLeft.update();
-        animRight.update();
-        updatePosition();
         handler.getCamera().center(this);
     }
 
@@ -85,23 +73,58 @@ public class Player extends Creature {
      */
     @Override
     public void render(Graphics2D g) {
-        g.drawImage(getCurrentFrameAnimation(), (int)(x - handler.getCamera().getxOffset()), (int)(y - handler.getCamera().getyOffset()), 128, 128, handler.getJFrame());
-        //g.setColor(Color.RED);
-        //g.fillRect((int)(x + bounds.x - handler.getCamera().getxOffset()), (int)(y + bounds.y - handler.getCamera().getyOffset()), bounds.width, bounds.height);
+        render(g, 1.0f);
+    }
+
+    /**
+     * Draws the player between its previous and current position.
+     * @param g is the Graphics object
+     * @param alpha is the interpolation between updates
+     */
+    @Override
+    public void render(Graphics2D g, float alpha) {
+        g.drawImage(getCurrentFrameAnimation(), (int) (getLerpX(alpha) - handler.getCamera().getLerpxOffset(alpha)),
+                (int) (getLerpY(alpha) - handler.getCamera().getLerpyOffset(alpha)), handler.getJFrame());
+    }
+
+    /**
+     * Queues the player on the entity layer, sorted by the bottom
+     * of its bounds on screen so it overlaps whatever stands behind
+     * it. Screen rather than world y keeps z small on any map.
+     * @param queue is the render queue
+     * @param alpha is the interpolation between updates
+     */
+    @Override
+    public void render(RenderQueue queue, float alpha) {
+        int screenY = (int) (getLerpY(alpha) - handler.getCamera().getLerpyOffset(alpha));
+        queue.submit(getCurrentFrameAnimation(), (int) (getLerpX(alpha) - handler.getCamera().getLerpxOffset(alpha)),
+                screenY, Assets.PLAYER_SIZE, Assets.PLAYER_SIZE,
+                RenderQueue.LAYER_ENTITIES, screenY + store.boundsY[id] + store.boundsHeight[id]);
+    }
+
+    /**
+     * Adds the player's previous and current position and its
+     * current animation frame to the snapshot.
+     * @param snapshot is the snapshot to fill
+     */
+    @Override
+    public void captureSnapshot(FrameSnapshot snapshot) {
+        snapshot.addEntity(store.prevX[id], store.prevY[id], getX(), getY(), Assets.PLAYER_SIZE, Assets.PLAYER_SIZE, getCurrentFrameAnimation());
     }
 
     private BufferedImage getCurrentFrameAnimation() {
-        if(velX < 0) {
-            return animLeft.getCurrentFrame();
-        } else if(velX > 0) {
-            return animRight.getCurrentFrame();
-        } else if(velY < 0) {
-            return animUp.getCurrentFrame();
-        } else if(velY > 0) {
-            return animDown.getCurrentFrame();
+        BufferedImage[] frames;
+
+        if (getVelX() < 0) {
+            frames = Assets.vladWalking_left;
+        } else if (getVelX() > 0) {
+            frames = Assets.vladWalking_right;
+        } else if (getVelY() < 0) {
+            frames = Assets.vladWalking_up;
         } else {
-            return animDown.getCurrentFrame();
+            frames = Assets.vladWalking_down;
         }
+        return frames[AnimationSystem.getFrame(store, id, frames.length, FRAME_TIME)];
     }
 
     /**
@@ -0,0 +1,335 @@
+package entities;
+
+import tiles.Tile;
+
+import java.util.Arrays;
+
+/**
+ * A broad phase for the entities of an {@link EntityStore}: every
+ * entity is filed under the {@link Tile#TILE_SIZE} cell holding the
+ * center of its bounds, so region, radius and nearest queries only
+ * look at the entities of the cells they cover instead of all of
+ * them.
+ * <p>
+ * Cells are hashed into a fixed table of buckets. Each bucket is a
+ * doubly linked list threaded through arrays indexed by entity id,
+ * so moving an entity between cells and running queries allocate
+ * nothing. Queries fill an int array with the ids found.
+ */
+public final class SpatialHash {
+
+    public static final int CELL_SIZE = Tile.TILE_SIZE;
+    private static final int NONE = -1;
+
+    private final EntityStore store;
+    private final int[] heads;
+    private final int mask;
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private int[] cellX = new int[0];
+    private int[] cellY = new int[0];
+    private int[] bucket = new int[0];
+    /**
+     * How many cells past a query the entities filed there can
+     * reach, from the largest bounds inserted.
+     */
+    private int reach = 1;
+    /**
+     * The cells any entity was ever filed under lie within these,
+     * which bounds how far {@link #nearest} has to look.
+     */
+    private int minCellX = Integer.MAX_VALUE, minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE, maxCellY = Integer.MIN_VALUE;
+
+    public SpatialHash(EntityStore store) {
+        this(store, 4096);
+    }
+
+    /**
+     * @param buckets is rounded up to a power of two; about as many
+     *                as there are occupied cells keeps lists short
+     */
+    public SpatialHash(EntityStore store, int buckets) {
+        this.store = store;
+        int size = Integer.highestOneBit(Math.max(1, buckets - 1)) << 1;
+        this.heads = new int[size];
+        this.mask = size - 1;
+        Arrays.fill(heads, NONE);
+    }
+
+    private int hash(int x, int y) {
+        return (x * 0x9E3779B1 ^ y * 0x85EBCA77) >>> 7 & mask;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (bucket.length < capacity) {
+            int size = Math.max(capacity, bucket.length * 2);
+            int old = bucket.length;
+            next = Arrays.copyOf(next, size);
+            prev = Arrays.copyOf(prev, size);
+            cellX = Arrays.copyOf(cellX, size);
+            cellY = Arrays.copyOf(cellY, size);
+            bucket = Arrays.copyOf(bucket, size);
+            Arrays.fill(bucket, old, size, NONE);
+        }
+    }
+
+    private int centerCellX(int id) {
+        return Math.floorDiv((int) (store.x[id] + store.boundsX[id] + store.boundsWidth[id] / 2f), CELL_SIZE);
+    }
+
+    private int centerCellY(int id) {
+        return Math.floorDiv((int) (store.y[id] + store.boundsY[id] + store.boundsHeight[id] / 2f), CELL_SIZE);
+    }
+
+    /**
+     * Files an entity under its current cell, or moves it there
+     * when it is filed under another one.
+     */
+    public void update(int id) {
+        ensureCapacity(id + 1);
+        int x = centerCellX(id);
+        int y = centerCellY(id);
+
+        if (bucket[id] != NONE) {
+            if (cellX[id] == x && cellY[id] == y) {
+                return;
+            }
+            unlink(id);
+        }
+        int extent = Math.max(store.boundsWidth[id], store.boundsHeight[id]);
+        reach = Math.max(reach, (extent / 2 + CELL_SIZE - 1) / CELL_SIZE);
+        minCellX = Math.min(minCellX, x);
+        minCellY = Math.min(minCellY, y);
+        maxCellX = Math.max(maxCellX, x);
+        maxCellY = Math.max(maxCellY, y);
+        int b = hash(x, y);
+        cellX[id] = x;
+        cellY[id] = y;
+        bucket[id] = b;
+        prev[id] = NONE;
+        next[id] = heads[b];
+
+        if (heads[b] != NONE) {
+            prev[heads[b]] = id;
+        }
+        heads[b] = id;
+    }
+
+    /**
+     * Takes an entity out of the hash.
+     */
+    public void remove(int id) {
+        if (id < bucket.length && bucket[id] != NONE) {
+            unlink(id);
+        }
+    }
+
+    private void unlink(int id) {
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            heads[bucket[id]] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        bucket[id] = NONE;
+    }
+
+    /**
+     * Brings the hash up to date with the store after a tick:
+     * entities that changed cell are moved, new ones filed and
+     * removed ones dropped. Entities that stayed in their cell cost
+     * one comparison.
+     */
+    public void updateAll() {
+        int size = store.size();
+        ensureCapacity(size);
+
+        for (int id = 0; id < size; id++) {
+            if ((store.flags[id] & EntityStore.USED) != 0) {
+                update(id);
+            } else if (bucket[id] != NONE) {
+                unlink(id);
+            }
+        }
+    }
+
+    /**
+     * Whether the entity is filed under a cell.
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < bucket.length && bucket[id] != NONE;
+    }
+
+    /**
+     * Whether an entity filed under the cell is still filed there and
+     * still in the store; one removed or pooled since the last
+     * {@link #updateAll} stays in its list until then.
+     */
+    private boolean isIn(int id, int cx, int cy) {
+        return cellX[id] == cx && cellY[id] == cy && (store.flags[id] & EntityStore.USED) != 0;
+    }
+
+    /**
+     * Finds the entities whose bounds overlap the given rectangle in
+     * world pixels.
+     *
+     * @param out receives the ids found
+     * @return the number of ids found, which can be more than fit in
+     *         out; only the first out.length are written
+     */
+    public int queryRegion(float x, float y, float width, float height, int[] out) {
+        int count = 0;
+        int x0 = Math.floorDiv((int) Math.floor(x), CELL_SIZE) - reach;
+        int y0 = Math.floorDiv((int) Math.floor(y), CELL_SIZE) - reach;
+        int x1 = Math.floorDiv((int) Math.floor(x + width), CELL_SIZE) + reach;
+        int y1 = Math.floorDiv((int) Math.floor(y + height), CELL_SIZE) + reach;
+
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                for (int id = heads[hash(cx, cy)]; id != NONE; id = next[id]) {
+                    // Other cells share the bucket, each entity is seen from its own cell only
+                    if (isIn(id, cx, cy) && overlaps(id, x, y, width, height)) {
+                        if (count < out.length) {
+                            out[count] = id;
+                        }
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the entities whose bounds overlap those of the given
+     * entity, leaving the entity itself out.
+     *
+     * @return the number of ids found, see {@link #queryRegion}
+     */
+    public int queryOverlapping(int id, int[] out) {
+        float x = store.x[id] + store.boundsX[id];
+        float y = store.y[id] + store.boundsY[id];
+        int count = 0;
+        int found = queryRegion(x, y, store.boundsWidth[id], store.boundsHeight[id], out);
+
+        for (int i = 0; i < Math.min(found, out.length); i++) {
+            if (out[i] != id) {
+                out[count++] = out[i];
+            }
+        }
+        return found > out.length ? found - 1 : count;
+    }
+
+    /**
+     * Finds the entities whose bounds come within the radius of the
+     * given point.
+     *
+     * @return the number of ids found, see {@link #queryRegion}
+     */
+    public int queryRadius(float x, float y, float radius, int[] out) {
+        int count = 0;
+        int x0 = Math.floorDiv((int) Math.floor(x - radius), CELL_SIZE) - reach;
+        int y0 = Math.floorDiv((int) Math.floor(y - radius), CELL_SIZE) - reach;
+        int x1 = Math.floorDiv((int) Math.floor(x + radius), CELL_SIZE) + reach;
+        int y1 = Math.floorDiv((int) Math.floor(y + radius), CELL_SIZE) + reach;
+
+        for (int cy = y0; cy <= y1; cy++) {
+            for (int cx = x0; cx <= x1; cx++) {
+                for (int id = heads[hash(cx, cy)]; id != NONE; id = next[id]) {
+                    if (isIn(id, cx, cy) && distanceSquared(id, x, y) <= radius * radius) {
+                        if (count < out.length) {
+                            out[count] = id;
+                        }
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the entity whose bounds are closest to the given point,
+     * searching rings of cells outwards until no closer entity can
+     * be left.
+     *
+     * @param maxRadius is the farthest to look in world pixels
+     * @param exclude   is an id to skip, such as the one asking, or
+     *                  -1
+     * @return the id, or -1 when there is none within maxRadius
+     */
+    public int nearest(float x, float y, float maxRadius, int exclude) {
+        if (minCellX > maxCellX) {
+            return NONE;
+        }
+        long centerX = Math.floorDiv((long) Math.floor(x), CELL_SIZE);
+        long centerY = Math.floorDiv((long) Math.floor(y), CELL_SIZE);
+        // Only the rings crossing the cells ever filed can hold anything
+        long first = Math.max(Math.max(minCellX - centerX, centerX - maxCellX), Math.max(minCellY - centerY, centerY - maxCellY));
+        long last = Math.max(Math.max(centerX - minCellX, maxCellX - centerX), Math.max(centerY - minCellY, maxCellY - centerY));
+        last = Math.min(last, (long) Math.min(Math.ceil(maxRadius / CELL_SIZE), Integer.MAX_VALUE) + reach);
+        int best = NONE;
+        float bestDistance = maxRadius * maxRadius;
+
+        for (long ring = Math.max(0, first); ring <= last; ring++) {
+            // Everything in this ring or beyond is at least this far away
+            float closest = Math.max(0, (ring - reach - 1) * (float) CELL_SIZE);
+
+            if (best != NONE && closest * closest > bestDistance) {
+                break;
+            }
+            int y0 = (int) Math.max(centerY - ring, minCellY);
+            int y1 = (int) Math.min(centerY + ring, maxCellY);
+            int x0 = (int) Math.max(centerX - ring, minCellX);
+            int x1 = (int) Math.min(centerX + ring, maxCellX);
+
+            for (int cy = y0; cy <= y1; cy++) {
+                boolean edge = cy == centerY - ring || cy == centerY + ring;
+                // Between the top and bottom rows only the two sides of the ring are new
+                long step = edge || ring == 0 ? 1 : 2 * ring;
+
+                for (long cx = edge ? x0 : centerX - ring; cx <= (edge ? x1 : centerX + ring); cx += step) {
+                    if (cx < minCellX || cx > maxCellX) {
+                        continue;
+                    }
+                    for (int id = heads[hash((int) cx, cy)]; id != NONE; id = next[id]) {
+                        if (id != exclude && isIn(id, (int) cx, cy)) {
+                            float distance = distanceSquared(id, x, y);
+
+                            if (distance <= bestDistance) {
+                                best = id;
+                                bestDistance = distance;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private boolean overlaps(int id, float x, float y, float width, float height) {
+        float left = store.x[id] + store.boundsX[id];
+        float top = store.y[id] + store.boundsY[id];
+        return left < x + width && left + store.boundsWidth[id] > x && top < y + height && top + store.boundsHeight[id] > y;
+    }
+
+    /**
+     * The squared distance from a point to the closest point of an
+     * entity's bounds, 0 inside them.
+     */
+    private float distanceSquared(int id, float x, float y) {
+        float left = store.x[id] + store.boundsX[id];
+        float top = store.y[id] + store.boundsY[id];
+        float dx = Math.max(0, Math.max(left - x, x - (left + store.boundsWidth[id])));
+        float dy = Math.max(0, Math.max(top - y, y - (top + store.boundsHeight[id])));
+        return dx * dx + dy * dy;
+    }
+
+    public EntityStore getStore() {
+        return store;
+    }
+}
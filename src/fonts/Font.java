@@ -1,5 +1,6 @@
 package fonts;
 
+import graphics.RenderQueue;
 import math3D.vectors.Vector2i;
 import textures.Texture;
 import java.awt.*;
@@ -43,6 +44,25 @@ public class Font {
         }
     }
 
+    /**
+     * Queues every letter of the phrase as a region of the font
+     * sheet, so no letter image is cut out.
+     *
+     * @param layer is the render queue layer, usually the HUD
+     */
+    public void render(RenderQueue queue, String phrase, int x, int y, int width, int height,
+                       int xOffset, int yOffset, int layer) {
+        for (int i = 0; i < phrase.length(); i++) {
+            if (phrase.charAt(i) != 32) {
+                int value = phrase.charAt(i) - 65;
+                queue.submit(FONT_SHEET, (value % letterWidth) * this.width, (value / letterWidth) * this.height,
+                        this.width, this.height, x, y, width, height, layer, 0);
+            }
+            x += xOffset;
+            y += yOffset;
+        }
+    }
+
     public BufferedImage getLetter(int x, int y) {
         return FONT_SHEET.getSubimage(x * width, y * height, width, height);
     }
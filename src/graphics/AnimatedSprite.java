@@ -44,6 +44,26 @@ public class AnimatedSprite {
         faceAngle = 0.0f;
     }
 
+    /**
+     * Returns the sprite to the state it was created in, keeping its
+     * image, frame layout and frame delay, so a pool can hand it out
+     * again.
+     */
+    public void reset() {
+        alive = true;
+        position.x = 0;
+        position.y = 0;
+        velocity.x = 0;
+        velocity.y = 0;
+        rotationRate = 0.0f;
+        currentState = 0;
+        currentFrame = 0;
+        animationDirection = 1;
+        frameCount = 0;
+        moveAngle = 0.0f;
+        faceAngle = 0.0f;
+    }
+
     public void load(String filename, int columns, int totalFrames, int width, int height) {
         image = new Texture(filename).getTexture();
 
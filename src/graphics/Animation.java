@@ -79,6 +79,13 @@ public class Animation {
         g2d.drawImage(getCurrentFrame(), x, y, width, height, handler.getJFrame());
     }
 
+    /**
+     * Queues the current frame on the given layer.
+     */
+    public void render(RenderQueue queue, int x, int y, int width, int height, int layer, int z) {
+        queue.submit(getCurrentFrame(), x, y, width, height, layer, z);
+    }
+
     public BufferedImage getCurrentFrame() {
         return images[frameIndex];
     }
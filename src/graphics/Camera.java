@@ -14,6 +14,8 @@ public class Camera {
     private Handler handler;
     private float xOffset;
     private float yOffset;
+    private float prevxOffset;
+    private float prevyOffset;
     private float x;
     private float y;
 
@@ -21,6 +23,33 @@ public class Camera {
         this.handler = handler;
         this.xOffset = xOffset;
         this.yOffset = yOffset;
+        this.prevxOffset = xOffset;
+        this.prevyOffset = yOffset;
+    }
+
+    /**
+     * Remembers the current offsets as the previous ones. Should
+     * be called once at the start of every update.
+     */
+    public void storePreviousOffsets() {
+        prevxOffset = xOffset;
+        prevyOffset = yOffset;
+    }
+
+    /**
+     * The x offset interpolated between the previous and the
+     * current update.
+     */
+    public float getLerpxOffset(float alpha) {
+        return prevxOffset + (xOffset - prevxOffset) * alpha;
+    }
+
+    /**
+     * The y offset interpolated between the previous and the
+     * current update.
+     */
+    public float getLerpyOffset(float alpha) {
+        return prevyOffset + (yOffset - prevyOffset) * alpha;
     }
 
     public void center(Creature creature) {
@@ -0,0 +1,238 @@
+package graphics;
+
+import fonts.Font;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Everything the render thread needs to draw one update of a
+ * state: camera offsets, the visible baked chunks, entity positions
+ * with their current animation frames, and HUD text.
+ * <p>
+ * Snapshots live in a {@link utils.TripleBuffer} and are reused.
+ * The update thread fills one between {@link #begin} and
+ * {@link #finish}; once published it is only read, so the render
+ * thread can draw it while the next update runs. Previous and
+ * current positions are both kept so drawing can interpolate.
+ */
+public final class FrameSnapshot {
+
+    private boolean valid = false;
+    private int stateId = -1;
+    /**
+     * The System.nanoTime() at which the update finished.
+     */
+    private long time;
+    private float prevCameraX, prevCameraY, cameraX, cameraY;
+
+    private int chunkCount = 0;
+    private BufferedImage[] chunks = new BufferedImage[8];
+    private int[] chunkX = new int[8];
+    private int[] chunkY = new int[8];
+    private int[] chunkLayer = new int[8];
+    private int[] chunkZ = new int[8];
+
+    private int overlayCount = 0;
+    private BufferedImage[] overlays = new BufferedImage[8];
+    private int[] overlayX = new int[8];
+    private int[] overlayY = new int[8];
+    private int[] overlayWidth = new int[8];
+    private int[] overlayHeight = new int[8];
+    private int[] overlayZ = new int[8];
+
+    private int entityCount = 0;
+    private float[] entityPrevX = new float[8];
+    private float[] entityPrevY = new float[8];
+    private float[] entityX = new float[8];
+    private float[] entityY = new float[8];
+    private int[] entityWidth = new int[8];
+    private int[] entityHeight = new int[8];
+    private BufferedImage[] entityFrames = new BufferedImage[8];
+
+    private int textCount = 0;
+    private Font[] textFonts = new Font[4];
+    private String[] texts = new String[4];
+    private int[] textX = new int[4];
+    private int[] textY = new int[4];
+    private int[] textSize = new int[4];
+    private int[] textSpacing = new int[4];
+
+    /**
+     * Starts filling the snapshot for the given state.
+     */
+    public void begin(int stateId, long time) {
+        this.valid = false;
+        this.stateId = stateId;
+        this.time = time;
+        entityCount = 0;
+        chunkCount = 0;
+        overlayCount = 0;
+        // Drop references so old chunks, frames and fonts can be collected
+        Arrays.fill(chunks, null);
+        Arrays.fill(overlays, null);
+        Arrays.fill(entityFrames, null);
+        Arrays.fill(textFonts, null);
+        Arrays.fill(texts, null);
+        textCount = 0;
+    }
+
+    /**
+     * Marks the snapshot as complete and ready to draw.
+     */
+    public void finish() {
+        valid = true;
+    }
+
+    public void setCamera(float prevX, float prevY, float x, float y) {
+        prevCameraX = prevX;
+        prevCameraY = prevY;
+        cameraX = x;
+        cameraY = y;
+    }
+
+    /**
+     * Adds a baked image of tiles whose top left corner is at the
+     * given world position in pixels.
+     *
+     * @param layer is the render queue layer it is drawn on
+     */
+    public void addChunk(BufferedImage chunk, int worldX, int worldY, int layer) {
+        addChunk(chunk, worldX, worldY, layer, 0);
+    }
+
+    /**
+     * Adds an image drawn over the chunks of its layer, such as the
+     * current frame of an animated tile.
+     *
+     * @param z orders images inside the layer, lower first
+     */
+    public void addChunk(BufferedImage chunk, int worldX, int worldY, int layer, int z) {
+        if (chunkCount == chunks.length) {
+            int size = chunkCount * 2;
+            chunks = Arrays.copyOf(chunks, size);
+            chunkX = Arrays.copyOf(chunkX, size);
+            chunkY = Arrays.copyOf(chunkY, size);
+            chunkLayer = Arrays.copyOf(chunkLayer, size);
+            chunkZ = Arrays.copyOf(chunkZ, size);
+        }
+        chunks[chunkCount] = chunk;
+        chunkX[chunkCount] = worldX;
+        chunkY[chunkCount] = worldY;
+        chunkLayer[chunkCount] = layer;
+        chunkZ[chunkCount] = z;
+        chunkCount++;
+    }
+
+    /**
+     * Adds an image drawn on the HUD layer at a fixed position on
+     * the screen, scaled to the given size.
+     *
+     * @param z orders images inside the layer, lower first
+     */
+    public void addOverlay(BufferedImage image, int x, int y, int width, int height, int z) {
+        if (overlayCount == overlays.length) {
+            int size = overlayCount * 2;
+            overlays = Arrays.copyOf(overlays, size);
+            overlayX = Arrays.copyOf(overlayX, size);
+            overlayY = Arrays.copyOf(overlayY, size);
+            overlayWidth = Arrays.copyOf(overlayWidth, size);
+            overlayHeight = Arrays.copyOf(overlayHeight, size);
+            overlayZ = Arrays.copyOf(overlayZ, size);
+        }
+        overlays[overlayCount] = image;
+        overlayX[overlayCount] = x;
+        overlayY[overlayCount] = y;
+        overlayWidth[overlayCount] = width;
+        overlayHeight[overlayCount] = height;
+        overlayZ[overlayCount] = z;
+        overlayCount++;
+    }
+
+    public void addEntity(float prevX, float prevY, float x, float y, int width, int height, BufferedImage frame) {
+        if (entityCount == entityX.length) {
+            int size = entityCount * 2;
+            entityPrevX = Arrays.copyOf(entityPrevX, size);
+            entityPrevY = Arrays.copyOf(entityPrevY, size);
+            entityX = Arrays.copyOf(entityX, size);
+            entityY = Arrays.copyOf(entityY, size);
+            entityWidth = Arrays.copyOf(entityWidth, size);
+            entityHeight = Arrays.copyOf(entityHeight, size);
+            entityFrames = Arrays.copyOf(entityFrames, size);
+        }
+        entityPrevX[entityCount] = prevX;
+        entityPrevY[entityCount] = prevY;
+        entityX[entityCount] = x;
+        entityY[entityCount] = y;
+        entityWidth[entityCount] = width;
+        entityHeight[entityCount] = height;
+        entityFrames[entityCount] = frame;
+        entityCount++;
+    }
+
+    public void addText(Font font, String text, int x, int y, int size, int spacing) {
+        if (textCount == texts.length) {
+            int length = textCount * 2;
+            textFonts = Arrays.copyOf(textFonts, length);
+            texts = Arrays.copyOf(texts, length);
+            textX = Arrays.copyOf(textX, length);
+            textY = Arrays.copyOf(textY, length);
+            textSize = Arrays.copyOf(textSize, length);
+            textSpacing = Arrays.copyOf(textSpacing, length);
+        }
+        textFonts[textCount] = font;
+        texts[textCount] = text;
+        textX[textCount] = x;
+        textY[textCount] = y;
+        textSize[textCount] = size;
+        textSpacing[textCount] = spacing;
+        textCount++;
+    }
+
+    /**
+     * Queues the snapshot between its previous and current update.
+     *
+     * @param queue is the render queue
+     * @param alpha is the interpolation between updates
+     */
+    public void render(RenderQueue queue, float alpha) {
+        float xOffset = prevCameraX + (cameraX - prevCameraX) * alpha;
+        float yOffset = prevCameraY + (cameraY - prevCameraY) * alpha;
+
+        for (int i = 0; i < textCount; i++) {
+            textFonts[i].render(queue, texts[i], textX[i], textY[i], textSize[i], textSize[i], textSpacing[i], 0,
+                    RenderQueue.LAYER_HUD);
+        }
+        for (int i = 0; i < overlayCount; i++) {
+            queue.submit(overlays[i], overlayX[i], overlayY[i], overlayWidth[i], overlayHeight[i], RenderQueue.LAYER_HUD,
+                    overlayZ[i]);
+        }
+        for (int i = 0; i < chunkCount; i++) {
+            queue.submit(chunks[i], (int) (chunkX[i] - xOffset), (int) (chunkY[i] - yOffset),
+                    chunks[i].getWidth(), chunks[i].getHeight(), chunkLayer[i], chunkZ[i]);
+        }
+        for (int i = 0; i < entityCount; i++) {
+            float x = entityPrevX[i] + (entityX[i] - entityPrevX[i]) * alpha;
+            float y = entityPrevY[i] + (entityY[i] - entityPrevY[i]) * alpha;
+            int screenY = (int) (y - yOffset);
+            queue.submit(entityFrames[i], (int) (x - xOffset), screenY, entityWidth[i], entityHeight[i],
+                    RenderQueue.LAYER_ENTITIES, screenY + entityHeight[i]);
+        }
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public int getStateId() {
+        return stateId;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+}
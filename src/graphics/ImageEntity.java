@@ -2,6 +2,7 @@ package graphics;
 
 import core.Core;
 import entities.Creature;
+import entities.EntityStore;
 import inputs.Keyboard;
 import inputs.Mouse;
 import textures.Texture;
@@ -18,8 +19,15 @@ public class ImageEntity extends Creature {
     private Graphics2D g2d;
     private Core loop;
 
+    /**
+     * An image entity in the store of the handler's world.
+     */
     public ImageEntity(Handler handler, float x, float y) {
-        super(handler, x, y, DEFAULT_ENTITY_WIDTH, DEFAULT_ENTITY_HEIGHT);
+        this(handler, handler.getWorld().getEntities(), x, y);
+    }
+
+    public ImageEntity(Handler handler, EntityStore store, float x, float y) {
+        super(handler, store, x, y, DEFAULT_ENTITY_WIDTH, DEFAULT_ENTITY_HEIGHT);
         this.g2d = handler.getGraphics2D();
         this.frame = handler.getJFrame();
         setAlive(true);
@@ -27,9 +35,20 @@ public class ImageEntity extends Creature {
         at = new AffineTransform();
     }
 
+    /**
+     * Keeps the image and reuses the transform, so a pooled entity
+     * allocates nothing when it comes back.
+     */
+    @Override
+    public void reset(float x, float y) {
+        super.reset(x, y);
+        setAlive(true);
+        at.setToIdentity();
+    }
+
     public void transform() {
         at.setToIdentity();
-        at.translate(x + width() / 2, y + height() / 2);
+        at.translate(getX() + width() / 2, getY() + height() / 2);
         at.rotate(Math.toRadians(getFaceAngle()));
         at.translate(-width() / 2, -height() / 2);
     }
@@ -46,8 +65,7 @@ public class ImageEntity extends Creature {
     }
 
     public void input(Keyboard key, Mouse mouse) {
-        x += velX;
-        y += velY;
+        setPosition(getX() + getVelX(), getY() + getVelY());
     }
 
     public void update() {
@@ -78,15 +96,15 @@ public class ImageEntity extends Creature {
     }
 
     public float getCenterX() {
-        return x + width() / 2;
+        return getX() + width() / 2;
     }
 
     public float getCenterY() {
-        return y + height() / 2;
+        return getY() + height() / 2;
     }
 
     public Rectangle getBounds() {
-        return new Rectangle((int) x, (int) y, width(), height());
+        return new Rectangle((int) getX(), (int) getY(), width(), height());
     }
 
     public int width() {
@@ -140,8 +158,4 @@ public class ImageEntity extends Creature {
         this.g2d = g2d;
     }
 
-    public void setPosition(float x, float y) {
-        this.x = x;
-        this.y = y;
-    }
 }
@@ -0,0 +1,162 @@
+package graphics;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Collects draw commands during a frame and draws them in one go.
+ * Commands are sorted by layer, then by z inside a layer, then by
+ * texture so draws of the same image follow each other. Commands
+ * that fall outside the viewport are skipped. The queue changes no
+ * graphics state, so the render profile the caller applied holds
+ * for the whole flush.
+ * <p>
+ * Commands are kept in parallel primitive arrays and sorted as
+ * packed long keys, so a frame allocates nothing once the arrays
+ * have grown to the frame's size.
+ */
+public final class RenderQueue {
+
+    public static final int LAYER_GROUND = 0;
+    public static final int LAYER_DECORATION = 1;
+    public static final int LAYER_ENTITIES = 2;
+    public static final int LAYER_OVERHEAD = 3;
+    public static final int LAYER_HUD = 4;
+    public static final int LAYER_COUNT = 5;
+
+    // Sort key layout, from the highest bit down: layer, z, texture, submission index
+    private static final int INDEX_BITS = 20;
+    private static final int TEXTURE_BITS = 20;
+    private static final int Z_BITS = 20;
+    private static final int MAX_COMMANDS = 1 << INDEX_BITS;
+    private static final int Z_OFFSET = 1 << (Z_BITS - 1);
+    private static final long INDEX_MASK = MAX_COMMANDS - 1;
+
+    private final int viewportWidth;
+    private final int viewportHeight;
+
+    private int count = 0;
+    private long[] keys;
+    private Image[] images;
+    // Source region per command, a width of zero means the whole image
+    private int[] source;
+    // Destination rectangle per command
+    private int[] destination;
+
+    public RenderQueue(int viewportWidth, int viewportHeight) {
+        this(viewportWidth, viewportHeight, 1024);
+    }
+
+    public RenderQueue(int viewportWidth, int viewportHeight, int capacity) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+        keys = new long[capacity];
+        images = new Image[capacity];
+        source = new int[capacity * 4];
+        destination = new int[capacity * 4];
+    }
+
+    /**
+     * Queues the whole image drawn into the destination rectangle.
+     *
+     * @param layer is one of the layer constants
+     * @param z     orders commands inside a layer, lower first; it is
+     *              clamped to 20 bits, so sort by screen rather than
+     *              world coordinates
+     */
+    public void submit(Image image, int dx, int dy, int dw, int dh, int layer, int z) {
+        submit(image, 0, 0, 0, 0, dx, dy, dw, dh, layer, z);
+    }
+
+    /**
+     * Queues a region of the image drawn into the destination
+     * rectangle, e.g. a frame of a sprite sheet or a font letter.
+     *
+     * @param layer is one of the layer constants
+     * @param z     orders commands inside a layer, lower first; it is
+     *              clamped to 20 bits, so sort by screen rather than
+     *              world coordinates
+     */
+    public void submit(Image image, int sx, int sy, int sw, int sh, int dx, int dy, int dw, int dh, int layer, int z) {
+        if (image == null) {
+            return;
+        }
+        if (count == keys.length) {
+            grow();
+        }
+        int i = count++;
+        images[i] = image;
+        source[i * 4] = sx;
+        source[i * 4 + 1] = sy;
+        source[i * 4 + 2] = sw;
+        source[i * 4 + 3] = sh;
+        destination[i * 4] = dx;
+        destination[i * 4 + 1] = dy;
+        destination[i * 4 + 2] = dw;
+        destination[i * 4 + 3] = dh;
+        long zKey = Math.max(0, Math.min((1 << Z_BITS) - 1, z + Z_OFFSET));
+        long texture = System.identityHashCode(image) & ((1 << TEXTURE_BITS) - 1);
+        keys[i] = ((long) layer << (INDEX_BITS + TEXTURE_BITS + Z_BITS))
+                | (zKey << (INDEX_BITS + TEXTURE_BITS))
+                | (texture << INDEX_BITS)
+                | i;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+
+        if (capacity > MAX_COMMANDS) {
+            throw new IllegalStateException("Render queue holds more than " + MAX_COMMANDS + " commands!");
+        }
+        keys = Arrays.copyOf(keys, capacity);
+        images = Arrays.copyOf(images, capacity);
+        source = Arrays.copyOf(source, capacity * 4);
+        destination = Arrays.copyOf(destination, capacity * 4);
+    }
+
+    /**
+     * Sorts and draws every queued command, then empties the queue.
+     *
+     * @param g2d is the graphics object
+     */
+    public void flush(Graphics2D g2d) {
+        Arrays.sort(keys, 0, count);
+
+        for (int k = 0; k < count; k++) {
+            int i = (int) (keys[k] & INDEX_MASK);
+            int dx = destination[i * 4];
+            int dy = destination[i * 4 + 1];
+            int dw = destination[i * 4 + 2];
+            int dh = destination[i * 4 + 3];
+
+            if (dx >= viewportWidth || dy >= viewportHeight || dx + dw <= 0 || dy + dh <= 0) {
+                continue;
+            }
+            int sw = source[i * 4 + 2];
+
+            if (sw == 0 && dw == images[i].getWidth(null) && dh == images[i].getHeight(null)) {
+                // Prepared images are already at their draw size
+                g2d.drawImage(images[i], dx, dy, null);
+            } else if (sw == 0) {
+                g2d.drawImage(images[i], dx, dy, dw, dh, null);
+            } else {
+                int sx = source[i * 4];
+                int sy = source[i * 4 + 1];
+                g2d.drawImage(images[i], dx, dy, dx + dw, dy + dh, sx, sy, sx + sw, sy + source[i * 4 + 3], null);
+            }
+        }
+        clear();
+    }
+
+    /**
+     * Drops every queued command without drawing it.
+     */
+    public void clear() {
+        Arrays.fill(images, 0, count, null);
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+}
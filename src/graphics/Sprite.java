@@ -1,6 +1,7 @@
 package graphics;
 
 import core.Core;
+import entities.EntityStore;
 import math3D.vectors.Vector2f;
 import utils.Handler;
 
@@ -17,17 +18,40 @@ public class Sprite extends Object {
     protected JFrame frame;
     protected Graphics2D g2d;
 
+    /**
+     * A sprite whose entity lives in the store of the handler's
+     * world.
+     */
     public Sprite(Handler handler) {
+        this(handler, handler.getWorld().getEntities());
+    }
+
+    public Sprite(Handler handler, EntityStore store) {
         this.frame = handler.getJFrame();
         this.g2d = handler.getGraphics2D();
         position = new Vector2f();
         velocity = new Vector2f();
-        entity = new ImageEntity(handler, position.x, position.y);
+        entity = new ImageEntity(handler, store, position.x, position.y);
         entity.setAlive(false);
         rotateRate = 0.0f;
         currentState = 0;
     }
 
+    /**
+     * Returns the sprite to the state it was created in, keeping its
+     * image, so a pool can hand it out again.
+     */
+    public void reset() {
+        position.x = 0;
+        position.y = 0;
+        velocity.x = 0;
+        velocity.y = 0;
+        rotateRate = 0.0f;
+        currentState = 0;
+        entity.reset(0, 0);
+        entity.setAlive(false);
+    }
+
     public void load(String filename) {
         entity.load(filename);
     }
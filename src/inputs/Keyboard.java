@@ -118,6 +118,36 @@ public class Keyboard implements KeyListener {
         }
     }
 
+    /**
+     * Presses the GameAction mapped to the key code without a
+     * KeyEvent. Used to drive the game from a script.
+     */
+    public void press(int keyCode) {
+        if (keyCode < 0 || keyCode >= keyActions.length) {
+            return;
+        }
+        keys[keyCode] = true;
+
+        if (keyActions[keyCode] != null) {
+            keyActions[keyCode].press();
+        }
+    }
+
+    /**
+     * Releases the GameAction mapped to the key code without a
+     * KeyEvent. Used to drive the game from a script.
+     */
+    public void release(int keyCode) {
+        if (keyCode < 0 || keyCode >= keyActions.length) {
+            return;
+        }
+        keys[keyCode] = false;
+
+        if (keyActions[keyCode] != null) {
+            keyActions[keyCode].release();
+        }
+    }
+
     @Override
     public void keyPressed(KeyEvent e) {
         GameAction gameAction = getKeyAction(e);
@@ -0,0 +1,153 @@
+package inputs;
+
+import utils.Util;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays key presses and releases at fixed update ticks, so the
+ * game can be driven without a window or a keyboard. A script is
+ * made of lines in the form "tick key action", for example
+ * "120 VK_D press". Lines starting with # are ignored.
+ */
+public class ScriptedInput {
+
+    private final List<long[]> events = new ArrayList<>();
+    private final boolean looping;
+    private long length = 0;
+    private int nextEvent = 0;
+
+    /**
+     * @param looping whether the script starts over once the
+     *                last event has been played
+     */
+    public ScriptedInput(boolean looping) {
+        this.looping = looping;
+    }
+
+    /**
+     * Loads a script from a file.
+     */
+    public static ScriptedInput load(String file, boolean looping) {
+        ScriptedInput script = new ScriptedInput(looping);
+        String[] lines = Util.loadFileAsString(file).split("\n");
+
+        for (String line : lines) {
+            line = line.trim();
+
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+
+            if (tokens.length < 3) {
+                System.err.println("Skipping malformed script line: " + line);
+                continue;
+            }
+            long tick = Long.parseLong(tokens[0]);
+            int keyCode = getKeyCode(tokens[1]);
+
+            if ("press".equalsIgnoreCase(tokens[2])) {
+                script.press(tick, keyCode);
+            } else if ("release".equalsIgnoreCase(tokens[2])) {
+                script.release(tick, keyCode);
+            } else {
+                throw new IllegalArgumentException("Unknown action in script: " + tokens[2]);
+            }
+        }
+        return script;
+    }
+
+    /**
+     * A looping script that walks the player around in a square,
+     * used when no script file is given.
+     */
+    public static ScriptedInput walkInSquare(int ticksPerSide) {
+        ScriptedInput script = new ScriptedInput(true);
+        int[] keys = {KeyEvent.VK_D, KeyEvent.VK_S, KeyEvent.VK_A, KeyEvent.VK_W};
+
+        for (int i = 0; i < keys.length; i++) {
+            script.press((long) i * ticksPerSide, keys[i]);
+            script.release((long) (i + 1) * ticksPerSide - 1, keys[i]);
+        }
+        return script;
+    }
+
+    private static int getKeyCode(String name) {
+        try {
+            return Integer.parseInt(name);
+        } catch (NumberFormatException e) {
+            try {
+                return KeyEvent.class.getField(name.toUpperCase()).getInt(null);
+            } catch (NoSuchFieldException | IllegalAccessException ex) {
+                throw new IllegalArgumentException("Unknown key in script: " + name);
+            }
+        }
+    }
+
+    public ScriptedInput press(long tick, int keyCode) {
+        return add(tick, keyCode, 1);
+    }
+
+    public ScriptedInput release(long tick, int keyCode) {
+        return add(tick, keyCode, 0);
+    }
+
+    /**
+     * Inserts the event after every event at the same or an earlier
+     * tick, so the list stays sorted and events of one tick play in
+     * the order they were added.
+     */
+    private ScriptedInput add(long tick, int keyCode, int pressed) {
+        int low = 0;
+        int high = events.size();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (events.get(middle)[0] <= tick) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        events.add(low, new long[]{tick, keyCode, pressed});
+        length = Math.max(length, tick + 1);
+        nextEvent = 0;
+        return this;
+    }
+
+    /**
+     * Plays every event scheduled for the given update tick on
+     * the keyboard. Ticks must be passed in increasing order.
+     */
+    public void apply(long tick, Keyboard key) {
+        if (events.isEmpty()) {
+            return;
+        }
+        long scriptTick = looping ? tick % length : tick;
+
+        if (looping && scriptTick == 0) {
+            nextEvent = 0;
+        }
+        while (nextEvent < events.size() && events.get(nextEvent)[0] <= scriptTick) {
+            long[] event = events.get(nextEvent++);
+
+            if (event[2] == 1) {
+                key.press((int) event[1]);
+            } else {
+                key.release((int) event[1]);
+            }
+        }
+    }
+
+    public boolean isLooping() {
+        return looping;
+    }
+
+    public long getLength() {
+        return length;
+    }
+}
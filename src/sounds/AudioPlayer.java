@@ -8,6 +8,12 @@ import java.io.IOException;
 
 public class AudioPlayer {
 
+    /**
+     * When disabled no audio line is opened and every playback
+     * method does nothing, e.g. when running headless.
+     */
+    private static volatile boolean enabled = true;
+
     private boolean paused = false;
     private boolean playing = false;
     private Clip audioClip;
@@ -20,6 +26,10 @@ public class AudioPlayer {
     public AudioPlayer(String audioPath) {
         this.audioPath = audioPath;
         audioFile = new File(audioPath);
+
+        if (!enabled) {
+            return;
+        }
         try {
             audioClip = AudioSystem.getClip();
         } catch (LineUnavailableException e) {
@@ -44,7 +54,18 @@ public class AudioPlayer {
         this.playing = playing;
     }
 
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        AudioPlayer.enabled = enabled;
+    }
+
     public void stop() {
+        if (audioClip == null) {
+            return;
+        }
         if (audioClip.isRunning()) {
             if (playing || paused) {
                 paused = false;
@@ -58,6 +79,9 @@ public class AudioPlayer {
     }
 
     public void pause() {
+        if (audioClip == null) {
+            return;
+        }
         if (audioClip.isRunning()) {
             if (!paused && playing) {
                 paused = true;
@@ -87,6 +111,9 @@ public class AudioPlayer {
     }
 
     public void setFile() {
+        if (!enabled) {
+            return;
+        }
         if (audioFile.exists()) {
             try {
                 audioInput = AudioSystem.getAudioInputStream(audioFile);
@@ -102,6 +129,9 @@ public class AudioPlayer {
     }
 
     public void play() {
+        if (audioClip == null) {
+            return;
+        }
         if (!audioClip.isOpen()) {
             try {
                 audioClip.open(audioInput);
@@ -122,6 +152,9 @@ public class AudioPlayer {
     }
 
     public void resume() {
+        if (audioClip == null) {
+            return;
+        }
         if (!audioClip.isRunning() && audioClip.isOpen()) {
             if (paused && !playing) {
                 paused = false;
@@ -134,6 +167,9 @@ public class AudioPlayer {
     }
 
     public void newTrack(String audioFile) {
+        if (audioClip == null) {
+            return;
+        }
         try {
             audioInput = AudioSystem.getAudioInputStream(new File(audioFile).getAbsoluteFile());
             audioClip.open(audioInput);
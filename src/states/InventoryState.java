@@ -7,7 +7,7 @@ import utils.Handler;
 import fonts.Font;
 import java.awt.*;
 
-public class InventoryState extends State {
+public class InventoryState extends RetainedState {
 
     private final Font font;
 
@@ -1,6 +1,7 @@
 package states;
 
 import core.Core;
+import graphics.RenderProfile;
 import inputs.GameAction;
 import inputs.Keyboard;
 import inputs.Mouse;
@@ -13,7 +14,7 @@ import java.awt.event.KeyEvent;
 
 import static textures.Assets.menuScreen;
 
-public class MenuState extends State {
+public class MenuState extends RetainedState {
 
     private final transient GameAction menu = new GameAction("Menu", GameAction.NORMAL);
     private final transient GameAction up = new GameAction("Move Up", GameAction.NORMAL);
@@ -26,12 +27,15 @@ public class MenuState extends State {
     private final Rectangle exit = new Rectangle(MAX.width / 2 - (menuScreen.getWidth() / 2) + 16, (MAX.height / 2 - menuScreen.getHeight() / 2 - 35) + 178, 171, 38);
     private final Rectangle back = new Rectangle(MAX.width / 2 - (menuScreen.getWidth() / 2) + 16, (MAX.height / 2 - menuScreen.getHeight() / 2 - 35) + 233, 171, 38);
 
+    private static final Color BACKGROUND = new Color(201, 158, 56, 255);
+
     private final Rectangle[] optionBoxes = new Rectangle[]{play, settings, restart, exit, back};
     private final Font font;
     private int currentSelection = -1;
 
     public MenuState(Handler handler, StateManager state) {
         super(handler, state, 6);
+        renderProfile = RenderProfile.BALANCED;
         font = new Font("ZeldaFont.png", 16, 16);
     }
 
@@ -63,18 +67,22 @@ public class MenuState extends State {
         }
 
         if (down.isPressed()) {
+            markSelectionDirty();
             currentSelection++;
 
             if (currentSelection >= optionBoxes.length) {
                 currentSelection = 0;
             }
+            markSelectionDirty();
         }
         if (up.isPressed()) {
+            markSelectionDirty();
             currentSelection--;
 
             if (currentSelection < 0) {
                 currentSelection = optionBoxes.length - 1;
             }
+            markSelectionDirty();
         }
         if (select.isPressed()) {
             switch (currentSelection) {
@@ -110,7 +118,7 @@ public class MenuState extends State {
      */
     @Override
     public void render(Graphics2D g2d) {
-        g2d.setColor(new Color(201, 158, 56, 255));
+        g2d.setColor(BACKGROUND);
         g2d.fillRect(0, 0, handler.getWidth(), handler.getHeight());
         g2d.drawImage(menuScreen, (handler.getWidth() / 2 - menuScreen.getWidth() / 2),
                 (handler.getHeight() / 2 - menuScreen.getHeight() / 2 - 35),
@@ -126,6 +134,15 @@ public class MenuState extends State {
         }
     }
 
+    /**
+     * Marks the box around the current selection to be redrawn.
+     */
+    private void markSelectionDirty() {
+        if (currentSelection >= 0 && currentSelection < optionBoxes.length) {
+            markOutlineDirty(optionBoxes[currentSelection]);
+        }
+    }
+
     /**
      * Any memory management should be performed
      * is this method.
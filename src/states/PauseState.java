@@ -12,7 +12,7 @@ import java.awt.*;
 import java.awt.event.KeyEvent;
 
 
-public class PauseState extends State {
+public class PauseState extends RetainedState {
 
     private final GameAction pause = new GameAction("Pause", GameAction.NORMAL);
     public final GameAction menu = new GameAction("Menu", GameAction.NORMAL);
@@ -3,10 +3,12 @@ package states;
 import core.Core;
 import fonts.Font;
 import graphics.Camera;
+import graphics.FrameSnapshot;
+import graphics.RenderProfile;
+import graphics.RenderQueue;
 import inputs.GameAction;
 import inputs.Keyboard;
 import inputs.Mouse;
-import math3D.vectors.Vector2i;
 import sounds.AudioPlayer;
 import textures.Assets;
 import tiles.World;
@@ -29,8 +31,10 @@ public class PlayState extends State {
     public PlayState(Handler handler, StateManager state) {
         super(handler, state, 3);
         this.handler = handler;
+        // Tiles, sprites and the font are all pixel art
+        renderProfile = RenderProfile.PIXEL_FAST;
         font = new Font("ZeldaFont.png", 16, 16);
-        map = new World(handler, "map3.txt");
+        map = new World(handler, System.getProperty("game.level", "map3.txt"));
         handler.setWorld(map);
         handler.getCamera().moveCamera(0, 0);
     }
@@ -43,8 +47,10 @@ public class PlayState extends State {
         if (!playMusic.isPlaying() && playMusic.isPaused()) {
             playMusic.resume();
         }
-        map.getPlayer().update();
+        handler.getCamera().storePreviousOffsets();
+        map.updateEntities();
         handler.getCamera().moveCamera(1, 1);
+        map.update();
     }
 
     /**
@@ -83,14 +89,50 @@ public class PlayState extends State {
      */
     @Override
     public void render(Graphics2D g2d) {
-        font.render(g2d, "Java Game Programming", new Vector2i(100, 100), 32, 32, 16, 0);
-        map.render(g2d);
+        render(g2d, 1.0f);
+    }
+
+    /**
+     * Renders the world between the previous and the current
+     * update.
+     *
+     * @param g2d   is the graphics object
+     * @param alpha is the interpolation between updates
+     */
+    @Override
+    public void render(Graphics2D g2d, float alpha) {
+        RenderQueue queue = handler.getRenderQueue();
+        font.render(queue, "Java Game Programming", 100, 100, 32, 32, 16, 0, RenderQueue.LAYER_HUD);
+        map.render(queue, alpha);
+
+        if (map.getMinimap() != null) {
+            map.getMinimap().render(queue, alpha);
+        }
+        queue.flush(g2d);
+    }
+
+    /**
+     * Captures the HUD text, the minimap, the visible tiles and the
+     * player.
+     *
+     * @param snapshot is the snapshot to fill
+     */
+    @Override
+    public boolean captureSnapshot(FrameSnapshot snapshot) {
+        snapshot.addText(font, "Java Game Programming", 100, 100, 32, 16);
+        map.captureSnapshot(snapshot);
+
+        if (map.getMinimap() != null) {
+            map.getMinimap().captureSnapshot(snapshot);
+        }
+        return true;
     }
 
   /** Any memory management should be performed is this method. */
   @Override
   public void cleanUp() {
     map.getPlayer().cleanUp();
+    map.cleanUp();
   }
 
     public Font getFont() {
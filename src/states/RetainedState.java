@@ -0,0 +1,93 @@
+package states;
+
+import utils.Handler;
+
+import java.awt.*;
+
+/**
+ * A state whose picture only changes when something on it changes,
+ * like a menu. It keeps track of the regions that changed since the
+ * last frame, and Core skips drawing and presenting while there are
+ * none. When only part of the screen changed, render is called with
+ * the graphics clipped to that part, on the paths that keep the
+ * previous frame.
+ */
+public abstract class RetainedState extends State {
+
+    private final Rectangle dirty = new Rectangle();
+    private boolean allDirty = true;
+
+    public RetainedState(Handler handler, StateManager state, final int id) {
+        super(handler, state, id);
+    }
+
+    /**
+     * Repaints the whole screen whenever the state becomes the
+     * current one, as the previous state drew over all of it.
+     */
+    @Override
+    public void setActive(boolean active) {
+        super.setActive(active);
+
+        if (active) {
+            markAllDirty();
+        }
+    }
+
+    /**
+     * Marks an area of the screen to be redrawn on the next frame.
+     */
+    public synchronized void markDirty(int x, int y, int width, int height) {
+        if (allDirty || width <= 0 || height <= 0) {
+            return;
+        }
+        if (dirty.isEmpty()) {
+            dirty.setBounds(x, y, width, height);
+        } else {
+            dirty.add(new Rectangle(x, y, width, height));
+        }
+    }
+
+    public void markDirty(Rectangle area) {
+        markDirty(area.x, area.y, area.width, area.height);
+    }
+
+    /**
+     * Marks a box drawn with drawRect, which covers one more pixel
+     * to the right and to the bottom than the rectangle itself.
+     */
+    public void markOutlineDirty(Rectangle box) {
+        markDirty(box.x, box.y, box.width + 1, box.height + 1);
+    }
+
+    /**
+     * Marks the whole screen to be redrawn on the next frame.
+     */
+    public synchronized void markAllDirty() {
+        allDirty = true;
+        dirty.setBounds(0, 0, 0, 0);
+    }
+
+    public synchronized boolean isDirty() {
+        return allDirty || !dirty.isEmpty();
+    }
+
+    /**
+     * Takes the area to redraw and marks the state clean again.
+     *
+     * @return null when nothing changed, the whole screen when
+     * everything did, otherwise the union of the marked areas
+     */
+    public synchronized Rectangle takeDirty() {
+        Rectangle area = null;
+
+        if (allDirty) {
+            area = new Rectangle(0, 0, handler.getWidth(), handler.getHeight());
+        } else if (!dirty.isEmpty()) {
+            area = new Rectangle(dirty);
+        }
+        allDirty = false;
+        dirty.setBounds(0, 0, 0, 0);
+        return area;
+    }
+}
@@ -1,5 +1,6 @@
 package states;
 
+import graphics.RenderProfile;
 import inputs.GameAction;
 import inputs.Keyboard;
 import inputs.Mouse;
@@ -10,7 +11,7 @@ import utils.Handler;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 
-public class StartState extends State {
+public class StartState extends RetainedState {
 
     private final GameAction left = new GameAction("Move Left", GameAction.NORMAL);
     private final GameAction right = new GameAction("Move Right", GameAction.NORMAL);
@@ -23,6 +24,7 @@ public class StartState extends State {
 
     public StartState(Handler handler, StateManager state) {
         super(handler, state, 1);
+        renderProfile = RenderProfile.BALANCED;
         Assets.startMusic.setFile();
         Assets.startMusic.play();
     }
@@ -45,18 +47,22 @@ public class StartState extends State {
 
         // Navigates the selections
         if (right.isPressed()) {
+            markSelectionDirty();
             currentSelection++;
 
             if (currentSelection >= optionBoxes.length) {
                 currentSelection = 0;
             }
+            markSelectionDirty();
         }
         if (left.isPressed()) {
+            markSelectionDirty();
             currentSelection--;
 
             if (currentSelection < 0) {
                 currentSelection = optionBoxes.length - 1;
             }
+            markSelectionDirty();
         }
         // When enter is pressed over a selection
         if (select.isPressed()) {
@@ -81,9 +87,9 @@ public class StartState extends State {
      */
     @Override
     public void render(Graphics2D g2d) {
-        g2d.drawImage(Assets.startBtn, (int) (MAX.width / 4.0f) + 50, (int) (MAX.height / 4.0f), 185, 64, handler.getJFrame());
-        g2d.drawImage(Assets.optionsBtn, (int) (MAX.width / 2.0f) + 70, (int) (MAX.height / 4.0f), 185, 64, handler.getJFrame());
-        g2d.drawImage(Assets.celticDragon, (int) (MAX.width / 3.0f) + 50, (int) (MAX.height / 2.7f), 300, 221, handler.getJFrame());
+        g2d.drawImage(Assets.startBtn, (int) (MAX.width / 4.0f) + 50, (int) (MAX.height / 4.0f), handler.getJFrame());
+        g2d.drawImage(Assets.optionsBtn, (int) (MAX.width / 2.0f) + 70, (int) (MAX.height / 4.0f), handler.getJFrame());
+        g2d.drawImage(Assets.celticDragon, (int) (MAX.width / 3.0f) + 50, (int) (MAX.height / 2.7f), handler.getJFrame());
 
         for (int i = 0; i < optionBoxes.length; i++) {
             if (i == currentSelection) {
@@ -96,6 +102,15 @@ public class StartState extends State {
 
     }
 
+    /**
+     * Marks the box around the current selection to be redrawn.
+     */
+    private void markSelectionDirty() {
+        if (currentSelection >= 0 && currentSelection < optionBoxes.length) {
+            markOutlineDirty(optionBoxes[currentSelection]);
+        }
+    }
+
     /**
      * Any memory management should be performed
      * is this method.
@@ -1,5 +1,7 @@
 package states;
 
+import graphics.FrameSnapshot;
+import graphics.RenderProfile;
 import utils.GameLogic;
 import utils.Handler;
 
@@ -9,6 +11,10 @@ public abstract class State implements GameLogic {
     protected final StateManager state;
     protected final Handler handler;
     protected boolean active = false;
+    /**
+     * The rendering hints the state is drawn with.
+     */
+    protected RenderProfile renderProfile = RenderProfile.QUALITY;
 
     public State(Handler handler, StateManager state, final int id) {
         this.id = id;
@@ -24,6 +30,26 @@ public abstract class State implements GameLogic {
         this.active = active;
     }
 
+    /**
+     * Fills the snapshot with what this state would draw, so it
+     * can be drawn on the render thread while the next update runs.
+     * States that return false are drawn with render() instead.
+     *
+     * @param snapshot is the snapshot to fill
+     * @return whether the state supports snapshots
+     */
+    public boolean captureSnapshot(FrameSnapshot snapshot) {
+        return false;
+    }
+
+    public RenderProfile getRenderProfile() {
+        return renderProfile;
+    }
+
+    public void setRenderProfile(RenderProfile renderProfile) {
+        this.renderProfile = renderProfile;
+    }
+
     public StateManager getState() {
         return state;
     }
@@ -140,6 +140,20 @@ public class StateManager implements GameLogic {
         }
     }
 
+    /**
+     * Renders the current state with the interpolation alpha
+     * from the game loop.
+     *
+     * @param g2d   is the graphics object
+     * @param alpha is the interpolation between updates
+     */
+    @Override
+    public void render(Graphics2D g2d, float alpha) {
+        if (currentState != null) {
+            currentState.render(g2d, alpha);
+        }
+    }
+
     /**
      * Any memory management should be performed
      * is this method.
@@ -1,5 +1,6 @@
 package textures;
 
+import graphics.RenderProfile;
 import sounds.AudioPlayer;
 
 import java.awt.*;
@@ -8,12 +9,25 @@ import java.awt.image.BufferedImage;
 public class Assets {
 
     private static final int TILE_SIZE = 64;
+    /**
+     * The size the player's animation frames are drawn at.
+     */
+    public static final int PLAYER_SIZE = 128;
+    public static final int BUTTON_WIDTH = 185, BUTTON_HEIGHT = 64;
+    public static final int DRAGON_WIDTH = 300, DRAGON_HEIGHT = 221;
+    /**
+     * The screen's configuration, or null when there is no screen.
+     */
+    private static final GraphicsConfiguration config = GraphicsEnvironment.isHeadless() ? null
+            : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
     public static AudioPlayer startMusic, playMusic;
     // UI Objects
     public static BufferedImage menuScreen, inventoryScreen, startBtn, optionsBtn, celticDragon;
     // Tiles
     public static BufferedImage tile_brick0, tile_brick1, tile_brick2, tile_dirt, tile_grass0, tile_grass1, tile_grass2, tile_water;
     public static BufferedImage tile_flowers, tile_mud, tile_path0, tile_path1, tile_path2, tile_sand, tile_stone0, tile_stone1;
+    // Animated tiles
+    public static BufferedImage[] tile_water_frames, tile_flowers_frames;
     // Players
     public static BufferedImage[] playerIdle, playerWalking;
     public static BufferedImage[] vladWalking_up, vladWalking_down, vladWalking_left, vladWalking_right;
@@ -27,125 +41,207 @@ public class Assets {
     public static Image player;
 
     public static void initTiles() {
-        tile_brick0 = new Texture("resources/textures/tiles/brick0.png").getTexture();
-        tile_brick1 = new Texture("resources/textures/tiles/brick1.png").getTexture();
-        tile_brick2 = new Texture("resources/textures/tiles/brick2.png").getTexture();
-        tile_dirt = new Texture("resources/textures/tiles/dirt.png").getTexture();
-        tile_grass0 = new Texture("resources/textures/tiles/grass0.png").getTexture();
-        tile_grass1 = new Texture("resources/textures/tiles/grass1.png").getTexture();
-        tile_grass2 = new Texture("resources/textures/tiles/grass2.png").getTexture();
-        tile_flowers = new Texture("resources/textures/tiles/grassFlowers.png").getTexture();
-        tile_mud = new Texture("resources/textures/tiles/mud.png").getTexture();
-        tile_path0 = new Texture("resources/textures/tiles/path0.png").getTexture();
-        tile_path1 = new Texture("resources/textures/tiles/path1.png").getTexture();
-        tile_path2 = new Texture("resources/textures/tiles/path2.png").getTexture();
-        tile_sand = new Texture("resources/textures/tiles/sand.png").getTexture();
-        tile_stone0 = new Texture("resources/textures/tiles/stone0.png").getTexture();
-        tile_stone1 = new Texture("resources/textures/tiles/stone1.png").getTexture();
-        tile_water = new Texture("resources/textures/tiles/waterTile.png").getTexture();
+        tile_brick0 = prepare(new Texture("resources/textures/tiles/brick0.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_brick1 = prepare(new Texture("resources/textures/tiles/brick1.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_brick2 = prepare(new Texture("resources/textures/tiles/brick2.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_dirt = prepare(new Texture("resources/textures/tiles/dirt.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_grass0 = prepare(new Texture("resources/textures/tiles/grass0.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_grass1 = prepare(new Texture("resources/textures/tiles/grass1.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_grass2 = prepare(new Texture("resources/textures/tiles/grass2.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_flowers = prepare(new Texture("resources/textures/tiles/grassFlowers.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_mud = prepare(new Texture("resources/textures/tiles/mud.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_path0 = prepare(new Texture("resources/textures/tiles/path0.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_path1 = prepare(new Texture("resources/textures/tiles/path1.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_path2 = prepare(new Texture("resources/textures/tiles/path2.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_sand = prepare(new Texture("resources/textures/tiles/sand.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_stone0 = prepare(new Texture("resources/textures/tiles/stone0.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_stone1 = prepare(new Texture("resources/textures/tiles/stone1.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        tile_water = prepare(new Texture("resources/textures/tiles/waterTile.png").getTexture(), TILE_SIZE, TILE_SIZE);
+        // The water flows to the right and the flowers sway
+        tile_water_frames = scrollFrames(tile_water, 8, TILE_SIZE / 8, 0);
+        tile_flowers_frames = new BufferedImage[]{tile_flowers, scroll(tile_flowers, 2, 0)};
     }
 
     public static void initEntities() {
         playerIdle = new BufferedImage[]{
-                new Texture("resources/textures/player/idle/_0.png").getTexture(),
-                new Texture("resources/textures/player/idle/_1.png").getTexture(),
-                new Texture("resources/textures/player/idle/_2.png").getTexture(),
-                new Texture("resources/textures/player/idle/_3.png").getTexture()
+                prepare(new Texture("resources/textures/player/idle/_0.png").getTexture()),
+                prepare(new Texture("resources/textures/player/idle/_1.png").getTexture()),
+                prepare(new Texture("resources/textures/player/idle/_2.png").getTexture()),
+                prepare(new Texture("resources/textures/player/idle/_3.png").getTexture())
         };
         playerWalking = new BufferedImage[]{
-                new Texture("resources/textures/player/walking/_0.png").getTexture(),
-                new Texture("resources/textures/player/walking/_1.png").getTexture(),
-                new Texture("resources/textures/player/walking/_2.png").getTexture(),
-                new Texture("resources/textures/player/walking/_3.png").getTexture()
+                prepare(new Texture("resources/textures/player/walking/_0.png").getTexture()),
+                prepare(new Texture("resources/textures/player/walking/_1.png").getTexture()),
+                prepare(new Texture("resources/textures/player/walking/_2.png").getTexture()),
+                prepare(new Texture("resources/textures/player/walking/_3.png").getTexture())
         };
-        dwarfSheet = new Texture("resources/textures/player/dwarfSpriteSheet.png").getTexture();
+        dwarfSheet = prepare(new Texture("resources/textures/player/dwarfSpriteSheet.png").getTexture());
         vladWalking_right = new BufferedImage[]{
                 // Walking East
-                new Texture("resources/textures/player/vlad/walking e0000.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking e0001.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking e0002.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking e0003.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking e0004.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking e0005.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking e0006.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking e0007.bmp").getTexture()};
+                prepare(new Texture("resources/textures/player/vlad/walking e0000.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking e0001.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking e0002.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking e0003.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking e0004.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking e0005.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking e0006.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking e0007.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE)};
                 // Walking West
         vladWalking_left = new BufferedImage[]{
-                new Texture("resources/textures/player/vlad/walking w0000.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking w0001.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking w0002.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking w0003.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking w0004.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking w0005.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking w0006.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking w0007.bmp").getTexture()};
+                prepare(new Texture("resources/textures/player/vlad/walking w0000.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking w0001.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking w0002.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking w0003.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking w0004.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking w0005.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking w0006.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking w0007.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE)};
                 // Walking South
         vladWalking_down = new BufferedImage[]{
-                new Texture("resources/textures/player/vlad/walking s0000.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking s0001.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking s0002.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking s0003.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking s0004.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking s0005.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking s0006.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking s0007.bmp").getTexture()};
+                prepare(new Texture("resources/textures/player/vlad/walking s0000.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking s0001.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking s0002.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking s0003.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking s0004.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking s0005.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking s0006.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking s0007.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE)};
                 // Walking North
         vladWalking_up = new BufferedImage[]{
-                new Texture("resources/textures/player/vlad/walking n0000.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking n0001.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking n0002.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking n0003.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking n0004.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking n0005.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking n0006.bmp").getTexture(),
-                new Texture("resources/textures/player/vlad/walking n0007.bmp").getTexture()};
-        linkSheet = new Texture("resources/textures/player/linkFormatted.png").getTexture();
+                prepare(new Texture("resources/textures/player/vlad/walking n0000.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking n0001.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking n0002.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking n0003.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking n0004.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking n0005.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking n0006.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE),
+                prepare(new Texture("resources/textures/player/vlad/walking n0007.bmp").getTexture(), PLAYER_SIZE, PLAYER_SIZE)};
+        linkSheet = prepare(new Texture("resources/textures/player/linkFormatted.png").getTexture());
         player = new Texture("resources/textures/player/dinoSheet.png").getTexture().getSubimage(24, 110, 30, 54).
                 getScaledInstance(90, 162, BufferedImage.SCALE_SMOOTH);
     }
 
     public static void initUIObjects() {
-        menuScreen = new Texture("resources/textures/menu.png").getTexture();
-        inventoryScreen = new Texture("resources/textures/inventoryScreen.png").getTexture();
-        startBtn = new Texture("resources/textures/playBtn.png").getTexture();
-        optionsBtn = new Texture("resources/textures/optionsBtn.png").getTexture();
-        celticDragon = new Texture("resources/textures/Red_Woods_Dragon_3.png").getTexture();
+        menuScreen = prepare(new Texture("resources/textures/menu.png").getTexture());
+        inventoryScreen = prepare(new Texture("resources/textures/inventoryScreen.png").getTexture());
+        startBtn = prepare(new Texture("resources/textures/playBtn.png").getTexture(), BUTTON_WIDTH, BUTTON_HEIGHT);
+        optionsBtn = prepare(new Texture("resources/textures/optionsBtn.png").getTexture(), BUTTON_WIDTH, BUTTON_HEIGHT);
+        celticDragon = prepare(new Texture("resources/textures/Red_Woods_Dragon_3.png").getTexture(), DRAGON_WIDTH, DRAGON_HEIGHT);
     }
 
     public static void initObjects() {
-        barrel0 = new Texture("resources/textures/objects/barrel0.png").getTexture();
-        barrel1 = new Texture("resources/textures/objects/barrel1.png").getTexture();
-        boulder = new Texture("resources/textures/objects/boulder.png").getTexture();
-        campFire0 = new Texture("resources/textures/objects/campFire0.png").getTexture();
-        campFire1 = new Texture("resources/textures/objects/campFire0.png").getTexture();
-        deadTree0 = new Texture("resources/textures/objects/deadTree0.png").getTexture();
-        deadTree1 = new Texture("resources/textures/objects/deadTree1.png").getTexture();
-        rock = new Texture("resources/textures/objects/rock.png").getTexture();
-        sign = new Texture("resources/textures/objects/sign.png").getTexture();
-        stump0 = new Texture("resources/textures/objects/stump0.png").getTexture();
-        tree0 = new Texture("resources/textures/objects/tree0.png").getTexture();
-        tree1 = new Texture("resources/textures/objects/tree1.png").getTexture();
-        rockObj1 = new Texture("resources/textures/objects/rock0.png").getTexture();
-        rockObj2 = new Texture("resources/textures/objects/rock1.png").getTexture();
-        rockObj3 = new Texture("resources/textures/objects/rock2.png").getTexture();
-        treeObj = new Texture("resources/textures/objects/green trees.png").getTexture();
+        barrel0 = prepare(new Texture("resources/textures/objects/barrel0.png").getTexture());
+        barrel1 = prepare(new Texture("resources/textures/objects/barrel1.png").getTexture());
+        boulder = prepare(new Texture("resources/textures/objects/boulder.png").getTexture());
+        campFire0 = prepare(new Texture("resources/textures/objects/campFire0.png").getTexture());
+        campFire1 = prepare(new Texture("resources/textures/objects/campFire0.png").getTexture());
+        deadTree0 = prepare(new Texture("resources/textures/objects/deadTree0.png").getTexture());
+        deadTree1 = prepare(new Texture("resources/textures/objects/deadTree1.png").getTexture());
+        rock = prepare(new Texture("resources/textures/objects/rock.png").getTexture());
+        sign = prepare(new Texture("resources/textures/objects/sign.png").getTexture());
+        stump0 = prepare(new Texture("resources/textures/objects/stump0.png").getTexture());
+        tree0 = prepare(new Texture("resources/textures/objects/tree0.png").getTexture());
+        tree1 = prepare(new Texture("resources/textures/objects/tree1.png").getTexture());
+        rockObj1 = prepare(new Texture("resources/textures/objects/rock0.png").getTexture());
+        rockObj2 = prepare(new Texture("resources/textures/objects/rock1.png").getTexture());
+        rockObj3 = prepare(new Texture("resources/textures/objects/rock2.png").getTexture());
+        treeObj = prepare(new Texture("resources/textures/objects/green trees.png").getTexture());
     }
 
     public static void initItems() {
         int tileSize = 25;
-        itemSheet = new Texture("resources/textures/itemSheet.png").getTexture();
+        itemSheet = prepare(new Texture("resources/textures/itemSheet.png").getTexture());
         heart = itemSheet.getSubimage(tileSize * 8, 0, tileSize, tileSize);
     }
 
     public static void initCursor() {
         circleCursor = new BufferedImage[]{
-                new Texture("resources/cursor/an_0.png").getTexture(),
-                new Texture("resources/cursor/an_1.png").getTexture(),
-                new Texture("resources/cursor/an_2.png").getTexture(),
-                new Texture("resources/cursor/an_3.png").getTexture()
+                prepare(new Texture("resources/cursor/an_0.png").getTexture()),
+                prepare(new Texture("resources/cursor/an_1.png").getTexture()),
+                prepare(new Texture("resources/cursor/an_2.png").getTexture()),
+                prepare(new Texture("resources/cursor/an_3.png").getTexture())
         };
     }
 
+    /**
+     * Creates an image in the screen's pixel format, so drawing it
+     * is a plain copy. Without a screen an int RGB or ARGB image is
+     * made instead.
+     *
+     * @param transparency is one of the {@link Transparency} constants
+     */
+    public static BufferedImage createCompatibleImage(int width, int height, int transparency) {
+        if (config == null) {
+            return new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        return config.createCompatibleImage(width, height, transparency);
+    }
+
+    /**
+     * Converts a loaded image to the screen's pixel format.
+     */
+    public static BufferedImage prepare(BufferedImage image) {
+        return prepare(image, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Converts a loaded image to the screen's pixel format and
+     * scales it to the size it is drawn at, so drawing it never
+     * converts or scales again. Scaling happens once here, so it
+     * uses the best filtering.
+     */
+    public static BufferedImage prepare(BufferedImage image, int width, int height) {
+        int transparency = image.getTransparency();
+        BufferedImage compatible = createCompatibleImage(1, 1, transparency);
+
+        if (image.getWidth() == width && image.getHeight() == height
+                && image.getColorModel().equals(compatible.getColorModel())) {
+            return image;
+        }
+        BufferedImage prepared = createCompatibleImage(width, height, transparency);
+        Graphics2D g2d = prepared.createGraphics();
+        RenderProfile.QUALITY.apply(g2d);
+        g2d.drawImage(image, 0, 0, width, height, null);
+        g2d.dispose();
+        image.flush();
+        return prepared;
+    }
+
+    /**
+     * Makes frames of a tiling texture moving by the given step in
+     * pixels each frame, starting with the texture itself.
+     */
+    public static BufferedImage[] scrollFrames(BufferedImage texture, int count, int stepX, int stepY) {
+        BufferedImage[] frames = new BufferedImage[count];
+
+        for (int i = 0; i < count; i++) {
+            frames[i] = i == 0 ? texture : scroll(texture, stepX * i, stepY * i);
+        }
+        return frames;
+    }
+
+    /**
+     * Copies a tiling texture shifted by the given offset in pixels,
+     * wrapping what moves off one edge back in on the other.
+     */
+    public static BufferedImage scroll(BufferedImage texture, int dx, int dy) {
+        int width = texture.getWidth();
+        int height = texture.getHeight();
+        dx = Math.floorMod(dx, width);
+        dy = Math.floorMod(dy, height);
+        BufferedImage scrolled = createCompatibleImage(width, height, texture.getTransparency());
+        Graphics2D g2d = scrolled.createGraphics();
+
+        for (int y = dy - height; y < height; y += height) {
+            for (int x = dx - width; x < width; x += width) {
+                g2d.drawImage(texture, x, y, null);
+            }
+        }
+        g2d.dispose();
+        return scrolled;
+    }
+
     public static void initAudio() {
         startMusic = new AudioPlayer("resources/sounds/01_-_Dragon_Warrior_-_NES_-_Overture_March.wav");
         playMusic = new AudioPlayer("resources/sounds/02_-_Dragon_Warrior_Chateau_Ladutorm.wav");
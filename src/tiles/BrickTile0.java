@@ -1,11 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class BrickTile0 extends Tile {
-
-
-    public BrickTile0(int id) {
-        super(Assets.tile_brick0, id, true);
-    }
-}
@@ -1,11 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class BrickTile1 extends Tile {
-
-
-    public BrickTile1(int id) {
-        super(Assets.tile_brick1, id, true);
-    }
-}
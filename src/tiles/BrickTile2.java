@@ -1,11 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class BrickTile2 extends Tile {
-
-
-    public BrickTile2(int id) {
-        super(Assets.tile_brick2, id, true);
-    }
-}
@@ -0,0 +1,246 @@
+package tiles;
+
+import graphics.RenderProfile;
+import textures.Assets;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the tiles of a {@link World} baked into images of
+ * {@link #CHUNK_SIZE} by {@link #CHUNK_SIZE} tiles, so the world
+ * is drawn with a handful of unscaled image draws instead of one
+ * scaled draw per tile. A cache bakes a range of layers on top of
+ * each other, so adding a layer to the range adds no draws. Chunks
+ * are baked when first needed and the least recently used ones are
+ * dropped once more than the capacity are held.
+ * <p>
+ * Animated tiles cannot be baked, so each chunk also lists its
+ * cells holding an animated tile on any of the cached layers. Those
+ * cells are drawn over the baked image every frame, see
+ * {@link #getAnimatedCells}.
+ */
+public class ChunkCache {
+
+    /**
+     * The width and height of a chunk in tiles.
+     */
+    public static final int CHUNK_SIZE = 16;
+    /**
+     * The width and height of a full chunk in pixels.
+     */
+    public static final int CHUNK_PIXELS = CHUNK_SIZE * Tile.TILE_SIZE;
+
+    private static final int[] NO_CELLS = new int[0];
+
+    private final World world;
+    private final int capacity;
+    private final int firstLayer;
+    private final int lastLayer;
+    private final Map<Long, Baked> chunks;
+    private int bakes = 0;
+
+    /**
+     * A cache of the ground and decoration layers.
+     *
+     * @param world    is the world whose tiles are baked
+     * @param capacity is the most chunks kept at once, each full
+     *                 chunk takes 4 MB
+     */
+    public ChunkCache(World world, int capacity) {
+        this(world, capacity, World.LAYER_GROUND, World.LAYER_DECORATION);
+    }
+
+    /**
+     * A cache of the layers from first to last. Chunks including
+     * the ground are opaque, others are translucent.
+     *
+     * @param world      is the world whose tiles are baked
+     * @param capacity   is the most chunks kept at once, each full
+     *                   chunk takes 4 MB
+     * @param firstLayer is the lowest layer baked
+     * @param lastLayer  is the highest layer baked
+     */
+    public ChunkCache(World world, int capacity, int firstLayer, int lastLayer) {
+        this.world = world;
+        this.capacity = capacity;
+        this.firstLayer = firstLayer;
+        this.lastLayer = lastLayer;
+        this.chunks = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Baked> eldest) {
+                if (size() > ChunkCache.this.capacity) {
+                    eldest.getValue().flush();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+    }
+
+    private Baked get(int chunkX, int chunkY) {
+        long key = key(chunkX, chunkY);
+        Baked chunk = chunks.get(key);
+
+        if (chunk == null) {
+            chunk = bake(chunkX, chunkY);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Returns the baked image of a chunk, baking it first if it is
+     * not cached. Chunks on the right and bottom edge of the map
+     * are only as large as the tiles they hold.
+     *
+     * @return the image, or null when the chunk has no static tiles
+     * on the cached layers
+     */
+    public BufferedImage getChunk(int chunkX, int chunkY) {
+        return get(chunkX, chunkY).image;
+    }
+
+    /**
+     * The cells of a chunk to draw over its baked image every frame,
+     * each y * CHUNK_SIZE + x inside the chunk. In an opaque chunk
+     * the cell's tiles are baked too, and all the cached layers of
+     * the cell have to be drawn again. In a translucent chunk the
+     * animated tiles are left out of the image.
+     */
+    public int[] getAnimatedCells(int chunkX, int chunkY) {
+        return get(chunkX, chunkY).animated;
+    }
+
+    private Baked bake(int chunkX, int chunkY) {
+        int xStart = chunkX * CHUNK_SIZE;
+        int yStart = chunkY * CHUNK_SIZE;
+        int columns = Math.max(1, Math.min(CHUNK_SIZE, world.getWidth() - xStart));
+        int rows = Math.max(1, Math.min(CHUNK_SIZE, world.getHeight() - yStart));
+        boolean opaque = isOpaque();
+        int[] animated = new int[columns * rows];
+        int animatedCount = 0;
+        boolean hasStatic = false;
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < columns; x++) {
+                boolean cellAnimated = false;
+
+                for (int layer = firstLayer; layer <= lastLayer; layer++) {
+                    Tile tile = world.getTile(layer, xStart + x, yStart + y);
+
+                    if (tile != null) {
+                        cellAnimated |= tile.isAnimated();
+                        hasStatic |= !tile.isAnimated();
+                    }
+                }
+                if (cellAnimated) {
+                    animated[animatedCount++] = y * CHUNK_SIZE + x;
+                }
+            }
+        }
+        animated = animatedCount == 0 ? NO_CELLS : Arrays.copyOf(animated, animatedCount);
+
+        if (!opaque && !hasStatic) {
+            return new Baked(null, animated);
+        }
+        BufferedImage chunk = Assets.createCompatibleImage(columns * Tile.TILE_SIZE, rows * Tile.TILE_SIZE,
+                opaque ? Transparency.OPAQUE : Transparency.TRANSLUCENT);
+        Graphics2D g2d = chunk.createGraphics();
+        // Baking happens once per chunk, so the best filtering is free
+        RenderProfile.QUALITY.apply(g2d);
+
+        for (int layer = firstLayer; layer <= lastLayer; layer++) {
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < columns; x++) {
+                    Tile tile = world.getTile(layer, xStart + x, yStart + y);
+
+                    // A translucent chunk would show the baked frame under the animation
+                    if (tile != null && (opaque || !tile.isAnimated())) {
+                        tile.render(g2d, x * Tile.TILE_SIZE, y * Tile.TILE_SIZE);
+                    }
+                }
+            }
+        }
+        g2d.dispose();
+        bakes++;
+        return new Baked(chunk, animated);
+    }
+
+    /**
+     * Drops the chunk holding the given tile, so it is baked again
+     * the next time it is drawn.
+     */
+    public void invalidate(int tileX, int tileY) {
+        Baked chunk = chunks.remove(key(Math.floorDiv(tileX, CHUNK_SIZE), Math.floorDiv(tileY, CHUNK_SIZE)));
+
+        if (chunk != null) {
+            chunk.flush();
+        }
+    }
+
+    /**
+     * Drops every chunk.
+     */
+    public void invalidateAll() {
+        for (Baked chunk : chunks.values()) {
+            chunk.flush();
+        }
+        chunks.clear();
+    }
+
+    /**
+     * Whether the chunks include the ground and so cover every
+     * pixel.
+     */
+    public boolean isOpaque() {
+        return firstLayer == World.LAYER_GROUND;
+    }
+
+    public int getFirstLayer() {
+        return firstLayer;
+    }
+
+    public int getLastLayer() {
+        return lastLayer;
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The number of chunks baked since the cache was created.
+     */
+    public int getBakes() {
+        return bakes;
+    }
+
+    private static final class Baked {
+
+        private final BufferedImage image;
+        private final int[] animated;
+
+        private Baked(BufferedImage image, int[] animated) {
+            this.image = image;
+            this.animated = animated;
+        }
+
+        private void flush() {
+            if (image != null) {
+                image.flush();
+            }
+        }
+    }
+}
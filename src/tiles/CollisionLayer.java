@@ -0,0 +1,71 @@
+package tiles;
+
+/**
+ * Which tiles of a {@link World} block movement, kept apart from
+ * the drawn layers as one bit per tile, row by row, packed into
+ * longs. A collision check is a bounds check and a single array
+ * read, and a 4096x4096 map takes 2 MB.
+ */
+public class CollisionLayer {
+
+    private final int width;
+    private final int height;
+    private final long[] solid;
+
+    public CollisionLayer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.solid = new long[(int) (((long) width * height + 63) >>> 6)];
+    }
+
+    /**
+     * Whether the tile blocks movement. Tiles outside the layer
+     * never do, the same as the grass World returns for them.
+     */
+    public boolean isSolid(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        int index = y * width + x;
+        // Shifting a long only uses the low six bits of the distance
+        return (solid[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void setSolid(int x, int y, boolean solid) {
+        int index = y * width + x;
+
+        if (solid) {
+            this.solid[index >>> 6] |= 1L << index;
+        } else {
+            this.solid[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * The number of solid tiles.
+     */
+    public int count() {
+        int count = 0;
+
+        for (long word : solid) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * The packed bits, tile y * width + x being bit (index & 63) of
+     * word index / 64.
+     */
+    public long[] getBits() {
+        return solid;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -1,10 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class DirtTile extends Tile {
-
-    public DirtTile(int id) {
-        super(Assets.tile_dirt, id, false);
-    }
-}
@@ -1,11 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class FlowerTile extends Tile {
-
-
-    public FlowerTile(int id) {
-        super(Assets.tile_flowers, id, false);
-    }
-}
@@ -1,10 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class GrassTile0 extends Tile {
-
-    public GrassTile0(int id) {
-        super(Assets.tile_grass0, id, false);
-    }
-}
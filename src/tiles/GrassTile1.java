@@ -1,10 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class GrassTile1 extends Tile {
-
-    public GrassTile1(int id) {
-        super(Assets.tile_grass1, id, false);
-    }
-}
@@ -1,10 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class GrassTile2 extends Tile {
-
-    public GrassTile2(int id) {
-        super(Assets.tile_grass2, id, false);
-    }
-}
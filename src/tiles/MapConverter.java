@@ -0,0 +1,71 @@
+package tiles;
+
+import utils.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Converts text levels to the binary format of {@link MapFile},
+ * writing each one next to its source with the .map extension.
+ * World loads the binary level in place of a text level when one
+ * exists. With --region a {@link RegionFile} is written instead,
+ * which World streams when it is named as the level.
+ * <p>
+ * Run with: java tiles.MapConverter [--region] [level.txt ...]
+ * Without levels every .txt level in resources/levels is
+ * converted.
+ */
+public class MapConverter {
+
+    public static void main(String[] args) {
+        boolean region = args.length > 0 && args[0].equals("--region");
+        String[] files = args.length > (region ? 1 : 0) ? Arrays.copyOfRange(args, region ? 1 : 0, args.length)
+                : listLevels(World.LEVELS);
+
+        for (String file : files) {
+            try {
+                long start = System.nanoTime();
+                MapFile map = MapFile.read(file);
+                Path target;
+
+                if (region) {
+                    int dot = file.lastIndexOf('.');
+                    target = Path.of((dot > 0 ? file.substring(0, dot) : file) + RegionFile.EXTENSION);
+                    RegionFile.write(map, target, ChunkCache.CHUNK_SIZE);
+                } else {
+                    target = Path.of(toBinaryName(file));
+                    map.writeBinary(target);
+                }
+                System.out.printf("%s -> %s (%dx%d) in %.1f ms%n", file, target, map.getTiles().getWidth(),
+                        map.getTiles().getHeight(), (System.nanoTime() - start) / 1e6);
+            } catch (IOException | RuntimeException e) {
+                Util.error(e, "Could not convert " + file + ": " + e.getLocalizedMessage());
+                Util.exit(-1);
+            }
+        }
+    }
+
+    /**
+     * The name of the binary level converted from a text level.
+     */
+    public static String toBinaryName(String file) {
+        return (file.endsWith(".txt") ? file.substring(0, file.length() - 4) : file) + MapFile.EXTENSION;
+    }
+
+    private static String[] listLevels(String directory) {
+        File[] levels = new File(directory).listFiles((dir, name) -> name.endsWith(".txt"));
+
+        if (levels == null) {
+            return new String[0];
+        }
+        String[] files = new String[levels.length];
+
+        for (int i = 0; i < levels.length; i++) {
+            files[i] = levels[i].getPath();
+        }
+        return files;
+    }
+}
@@ -0,0 +1,180 @@
+package tiles;
+
+import utils.IntScanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A level as stored on disk, either in the original text format or
+ * in the binary format. The binary format is a header of big endian
+ * ints: the magic "TMAP", the format version, width, height, entity
+ * id, the spawn x and y and, from version 2, the number of layers.
+ * The tile ids of each layer follow as one short per tile, row by
+ * row, the same layout as {@link TileStore}. Version 1 files hold
+ * the ground layer only.
+ * Binary levels are read through a memory mapped buffer straight
+ * into the stores, without any per-tile parsing.
+ */
+public class MapFile {
+
+    public static final int MAGIC = 0x544D4150;
+    public static final int VERSION = 2;
+    public static final int HEADER_BYTES = 8 * Integer.BYTES;
+    public static final String EXTENSION = ".map";
+
+    private final TileStore[] layers;
+    private final int entityId;
+    private final int spawnX;
+    private final int spawnY;
+
+    public MapFile(TileStore tiles, int entityId, int spawnX, int spawnY) {
+        this(new TileStore[]{tiles}, entityId, spawnX, spawnY);
+    }
+
+    /**
+     * @param layers are the tile layers from the ground up, all of
+     *               the same size
+     */
+    public MapFile(TileStore[] layers, int entityId, int spawnX, int spawnY) {
+        this.layers = layers;
+        this.entityId = entityId;
+        this.spawnX = spawnX;
+        this.spawnY = spawnY;
+    }
+
+    /**
+     * Reads a level in the format its extension names.
+     */
+    public static MapFile read(String file) throws IOException {
+        return file.endsWith(EXTENSION) ? readBinary(Path.of(file)) : readText(file);
+    }
+
+    /**
+     * Reads a text level: width, height, entity id, spawn x and
+     * spawn y followed by the tile ids row by row, all separated
+     * by whitespace. Up to {@link World#LAYER_COUNT} layers may
+     * follow each other, where -1 leaves a tile of an upper layer
+     * empty.
+     */
+    public static MapFile readText(String file) throws IOException {
+        try (IntScanner scanner = IntScanner.open(file)) {
+            int width = scanner.nextInt();
+            int height = scanner.nextInt();
+            int entityId = scanner.nextInt();
+            int spawnX = scanner.nextInt();
+            int spawnY = scanner.nextInt();
+            TileStore[] layers = new TileStore[World.LAYER_COUNT];
+            int count = 0;
+
+            do {
+                layers[count] = new TileStore(width, height);
+                scanner.nextShorts(layers[count].getData(), 0, layers[count].size());
+                count++;
+            } while (count < layers.length && scanner.hasNext());
+            return new MapFile(Arrays.copyOf(layers, count), entityId, spawnX, spawnY);
+        } catch (NumberFormatException e) {
+            throw new IOException(e.getLocalizedMessage() + " in " + file, e);
+        }
+    }
+
+    /**
+     * Reads a binary level through a memory mapped buffer.
+     */
+    public static MapFile readBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+
+            if (length < HEADER_BYTES - Integer.BYTES) {
+                throw new IOException("Missing map header in " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a binary map");
+            }
+            int version = buffer.getInt();
+
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported map version " + version + " in " + file);
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int entityId = buffer.getInt();
+            int spawnX = buffer.getInt();
+            int spawnY = buffer.getInt();
+            int count = version == 1 ? 1 : buffer.getInt();
+
+            if (count < 1 || count > World.LAYER_COUNT) {
+                throw new IOException("Unsupported layer count " + count + " in " + file);
+            }
+            TileStore[] layers = new TileStore[count];
+
+            for (int i = 0; i < count; i++) {
+                layers[i] = new TileStore(width, height);
+            }
+            if (length != buffer.position() + (long) count * layers[0].size() * Short.BYTES) {
+                throw new IOException("Expected " + count + " layers of " + layers[0].size() + " tiles in " + file);
+            }
+            for (TileStore layer : layers) {
+                buffer.asShortBuffer().get(layer.getData());
+                buffer.position(buffer.position() + layer.size() * Short.BYTES);
+            }
+            return new MapFile(layers, entityId, spawnX, spawnY);
+        }
+    }
+
+    /**
+     * Writes the level in the binary format.
+     */
+    public void writeBinary(Path file) throws IOException {
+        TileStore tiles = getTiles();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + layers.length * tiles.size() * Short.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(tiles.getWidth()).putInt(tiles.getHeight())
+                .putInt(entityId).putInt(spawnX).putInt(spawnY).putInt(layers.length);
+
+        for (TileStore layer : layers) {
+            buffer.asShortBuffer().put(layer.getData());
+            buffer.position(buffer.position() + layer.size() * Short.BYTES);
+        }
+        buffer.rewind();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * The ground layer.
+     */
+    public TileStore getTiles() {
+        return layers[0];
+    }
+
+    /**
+     * The tile layers from the ground up.
+     */
+    public TileStore[] getLayers() {
+        return layers;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public int getSpawnX() {
+        return spawnX;
+    }
+
+    public int getSpawnY() {
+        return spawnY;
+    }
+}
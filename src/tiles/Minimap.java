@@ -0,0 +1,179 @@
+package tiles;
+
+import graphics.Camera;
+import graphics.FrameSnapshot;
+import graphics.RenderQueue;
+import utils.Handler;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * The whole map at one pixel per tile, in the colour of the top
+ * tile of each position. The pixels are filled once when the map
+ * loads and patched in place when a tile changes, so drawing the
+ * minimap is one scaled image draw however large the map is. The
+ * player and the part of the map on screen are drawn on top.
+ */
+public class Minimap {
+
+    /**
+     * The largest width or height the minimap is drawn at.
+     */
+    public static final int MAX_SIZE = 192;
+    /**
+     * The space between the minimap and the corner of the screen.
+     */
+    public static final int MARGIN = 16;
+
+    private static final int VIEWPORT_COLOR = 0xFFFFFFFF;
+    private static final int PLAYER_COLOR = 0xFFFF3030;
+    private static final int PLAYER_SIZE = 4;
+
+    private final Handler handler;
+    private final World world;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final BufferedImage viewportPixel;
+    private final BufferedImage playerPixel;
+    /**
+     * The colour of each tile id, 0 until it is first needed.
+     */
+    private int[] colors = new int[0];
+    private final int drawWidth;
+    private final int drawHeight;
+
+    public Minimap(Handler handler, World world) {
+        this.handler = handler;
+        this.world = world;
+        this.image = new BufferedImage(world.getWidth(), world.getHeight(), BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.viewportPixel = pixel(VIEWPORT_COLOR);
+        this.playerPixel = pixel(PLAYER_COLOR);
+        float scale = Math.min(MAX_SIZE / (float) world.getWidth(), MAX_SIZE / (float) world.getHeight());
+
+        // Whole pixels per tile keep small maps sharp
+        if (scale >= 1) {
+            scale = (float) Math.floor(scale);
+        }
+        drawWidth = Math.max(1, Math.round(world.getWidth() * scale));
+        drawHeight = Math.max(1, Math.round(world.getHeight() * scale));
+        update(0, 0, world.getWidth(), world.getHeight());
+    }
+
+    private static BufferedImage pixel(int argb) {
+        BufferedImage pixel = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        pixel.setRGB(0, 0, argb);
+        return pixel;
+    }
+
+    /**
+     * Repaints the pixel of one tile.
+     */
+    public void update(int x, int y) {
+        Tile tile = null;
+
+        for (int layer = World.LAYER_COUNT - 1; layer >= World.LAYER_GROUND && tile == null; layer--) {
+            tile = world.getTile(layer, x, y);
+        }
+        pixels[y * world.getWidth() + x] = tile == null ? 0 : getColor(tile.getId());
+    }
+
+    /**
+     * Repaints the pixels of the tiles from x0, y0 up to but not
+     * including x1, y1.
+     */
+    public void update(int x0, int y0, int x1, int y1) {
+        for (int y = Math.max(0, y0); y < Math.min(world.getHeight(), y1); y++) {
+            for (int x = Math.max(0, x0); x < Math.min(world.getWidth(), x1); x++) {
+                update(x, y);
+            }
+        }
+    }
+
+    /**
+     * The average colour of a tile's texture.
+     */
+    private int getColor(int id) {
+        if (id >= colors.length) {
+            colors = Arrays.copyOf(colors, Math.max(id + 1, Tile.registry.size()));
+        }
+        if (colors[id] == 0) {
+            BufferedImage texture = Tile.get(id).getTexture();
+            long r = 0, g = 0, b = 0;
+            int count = texture.getWidth() * texture.getHeight();
+
+            for (int y = 0; y < texture.getHeight(); y++) {
+                for (int x = 0; x < texture.getWidth(); x++) {
+                    int rgb = texture.getRGB(x, y);
+                    r += (rgb >> 16) & 0xFF;
+                    g += (rgb >> 8) & 0xFF;
+                    b += rgb & 0xFF;
+                }
+            }
+            // The alpha bit keeps a black tile from reading as not computed
+            colors[id] = 0xFF000000 | (int) (r / count) << 16 | (int) (g / count) << 8 | (int) (b / count);
+        }
+        return colors[id];
+    }
+
+    /**
+     * Queues the minimap in the top right corner of the screen on
+     * the HUD layer, with the view and the player interpolated
+     * between the previous and the current update.
+     */
+    public void render(RenderQueue queue, float alpha) {
+        Camera camera = handler.getCamera();
+        draw(queue, null, camera.getLerpxOffset(alpha), camera.getLerpyOffset(alpha),
+                world.getPlayer().getLerpX(alpha), world.getPlayer().getLerpY(alpha));
+    }
+
+    /**
+     * Adds the minimap, the view and the player at the current
+     * update to the snapshot. The pixels are shared with the render
+     * thread; a tile changed while it draws shows a frame early.
+     */
+    public void captureSnapshot(FrameSnapshot snapshot) {
+        Camera camera = handler.getCamera();
+        draw(null, snapshot, camera.getxOffset(), camera.getyOffset(), world.getPlayer().getX(), world.getPlayer().getY());
+    }
+
+    /**
+     * Draws into whichever of the queue and the snapshot is given.
+     */
+    private void draw(RenderQueue queue, FrameSnapshot snapshot, float cameraX, float cameraY, float playerX, float playerY) {
+        int x = handler.getWidth() - drawWidth - MARGIN;
+        float scaleX = drawWidth / (float) (world.getWidth() * Tile.TILE_SIZE);
+        float scaleY = drawHeight / (float) (world.getHeight() * Tile.TILE_SIZE);
+        int viewX = x + (int) (cameraX * scaleX);
+        int viewY = MARGIN + (int) (cameraY * scaleY);
+        int viewWidth = Math.max(1, (int) (handler.getWidth() * scaleX));
+        int viewHeight = Math.max(1, (int) (handler.getHeight() * scaleY));
+        int markerX = x + (int) ((playerX + world.getPlayer().getWidth() / 2f) * scaleX) - PLAYER_SIZE / 2;
+        int markerY = MARGIN + (int) ((playerY + world.getPlayer().getHeight() / 2f) * scaleY) - PLAYER_SIZE / 2;
+        draw(queue, snapshot, image, x, MARGIN, drawWidth, drawHeight, 0);
+        draw(queue, snapshot, viewportPixel, viewX, viewY, viewWidth, 1, 1);
+        draw(queue, snapshot, viewportPixel, viewX, viewY + viewHeight - 1, viewWidth, 1, 1);
+        draw(queue, snapshot, viewportPixel, viewX, viewY, 1, viewHeight, 1);
+        draw(queue, snapshot, viewportPixel, viewX + viewWidth - 1, viewY, 1, viewHeight, 1);
+        draw(queue, snapshot, playerPixel, markerX, markerY, PLAYER_SIZE, PLAYER_SIZE, 2);
+    }
+
+    private static void draw(RenderQueue queue, FrameSnapshot snapshot, BufferedImage image, int x, int y, int width, int height,
+                             int z) {
+        if (queue != null) {
+            queue.submit(image, x, y, width, height, RenderQueue.LAYER_HUD, z);
+        } else {
+            snapshot.addOverlay(image, x, y, width, height, z);
+        }
+    }
+
+    public int getDrawWidth() {
+        return drawWidth;
+    }
+
+    public int getDrawHeight() {
+        return drawHeight;
+    }
+}
@@ -1,11 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class MudTile extends Tile {
-
-
-    public MudTile(int id) {
-        super(Assets.tile_mud, id, false);
-    }
-}
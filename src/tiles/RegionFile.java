@@ -0,0 +1,201 @@
+package tiles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A level stored chunk by chunk, so any chunk can be read or
+ * written on its own. The header is eight big endian ints: the
+ * magic "TREG", the format version, width, height, entity id,
+ * spawn x, spawn y and the chunk size in tiles. The chunks follow
+ * row by row, each one chunk size squared shorts, row by row inside
+ * the chunk. Chunks on the right and bottom edge are padded with
+ * zeros to the full size. Region files hold the ground layer only.
+ */
+public class RegionFile implements AutoCloseable {
+
+    public static final int MAGIC = 0x54524547;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 8 * Integer.BYTES;
+    public static final String EXTENSION = ".region";
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private final int width;
+    private final int height;
+    private final int entityId;
+    private final int spawnX;
+    private final int spawnY;
+    private final int chunkSize;
+    private final int chunksWide;
+    private final int chunkBytes;
+
+    private RegionFile(FileChannel channel, ByteBuffer header, boolean writable) throws IOException {
+        this.channel = channel;
+        this.writable = writable;
+
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a region file");
+        }
+        int version = header.getInt();
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported region version " + version);
+        }
+        width = header.getInt();
+        height = header.getInt();
+        entityId = header.getInt();
+        spawnX = header.getInt();
+        spawnY = header.getInt();
+        chunkSize = header.getInt();
+
+        if (width <= 0 || height <= 0 || chunkSize <= 0) {
+            throw new IOException("Invalid region size " + width + "x" + height + " in chunks of " + chunkSize);
+        }
+        chunksWide = (width + chunkSize - 1) / chunkSize;
+        chunkBytes = chunkSize * chunkSize * Short.BYTES;
+        long chunksHigh = (height + chunkSize - 1) / chunkSize;
+
+        if (channel.size() != HEADER_BYTES + chunksWide * chunksHigh * chunkBytes) {
+            throw new IOException("Region file is truncated");
+        }
+    }
+
+    /**
+     * Opens a region file for reading, and for writing chunks back
+     * when writable is true.
+     */
+    public static RegionFile open(Path file, boolean writable) throws IOException {
+        FileChannel channel = writable ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Missing region header in " + file);
+                }
+            }
+            header.flip();
+            return new RegionFile(channel, header, writable);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a whole level as a region file.
+     */
+    public static void write(MapFile map, Path file, int chunkSize) throws IOException {
+        TileStore tiles = map.getTiles();
+        int chunksWide = (tiles.getWidth() + chunkSize - 1) / chunkSize;
+        int chunksHigh = (tiles.getHeight() + chunkSize - 1) / chunkSize;
+        ByteBuffer chunk = ByteBuffer.allocate(chunkSize * chunkSize * Short.BYTES);
+        ShortBuffer shorts = chunk.asShortBuffer();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(tiles.getWidth()).putInt(tiles.getHeight())
+                    .putInt(map.getEntityId()).putInt(map.getSpawnX()).putInt(map.getSpawnY()).putInt(chunkSize);
+            header.flip();
+            writeFully(channel, header);
+
+            for (int cy = 0; cy < chunksHigh; cy++) {
+                for (int cx = 0; cx < chunksWide; cx++) {
+                    shorts.clear();
+
+                    for (int y = 0; y < chunkSize; y++) {
+                        for (int x = 0; x < chunkSize; x++) {
+                            int tileX = cx * chunkSize + x;
+                            int tileY = cy * chunkSize + y;
+                            shorts.put(tiles.contains(tileX, tileY) ? (short) tiles.get(tileX, tileY) : 0);
+                        }
+                    }
+                    chunk.clear();
+                    writeFully(channel, chunk);
+                }
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads one chunk into the given array of chunk size squared
+     * tile ids. Safe to call from any thread.
+     */
+    public void readChunk(int cx, int cy, short[] tiles) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(chunkBytes);
+        long position = offset(cx, cy);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Region file ended inside chunk " + cx + ", " + cy);
+            }
+        }
+        buffer.flip();
+        buffer.asShortBuffer().get(tiles);
+    }
+
+    /**
+     * Writes one chunk of chunk size squared tile ids back to the
+     * file. Safe to call from any thread.
+     */
+    public void writeChunk(int cx, int cy, short[] tiles) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(chunkBytes);
+        buffer.asShortBuffer().put(tiles);
+        long position = offset(cx, cy);
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private long offset(int cx, int cy) {
+        return HEADER_BYTES + ((long) cy * chunksWide + cx) * chunkBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public boolean isWritable() {
+        return writable;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public int getSpawnX() {
+        return spawnX;
+    }
+
+    public int getSpawnY() {
+        return spawnY;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
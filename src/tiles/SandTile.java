@@ -1,11 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class SandTile extends Tile {
-
-
-    public SandTile(int id) {
-        super(Assets.tile_sand, id, false);
-    }
-}
@@ -1,11 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class StoneTile0 extends Tile {
-
-
-    public StoneTile0(int id) {
-        super(Assets.tile_stone0, id, false);
-    }
-}
@@ -1,11 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class StoneTile1 extends Tile {
-
-
-    public StoneTile1(int id) {
-        super(Assets.tile_stone1, id, false);
-    }
-}
@@ -0,0 +1,322 @@
+package tiles;
+
+import utils.Util;
+
+import java.awt.*;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Streams the tiles of a {@link RegionFile} around the camera, so
+ * only a fixed window of chunks is ever held in memory however large
+ * the map is. Chunks are read on a background thread; until a chunk
+ * arrives its tiles read as the placeholder id.
+ * <p>
+ * The window is a ring of slots, a chunk's slot being its chunk
+ * coordinates modulo the window size, so looking up a tile is two
+ * array reads and never allocates. {@link #focus} and {@link #set}
+ * must be called from the update thread.
+ * <p>
+ * When the region file was opened writable, changed chunks are
+ * written back when they leave the window and changes to chunks
+ * outside the window are written straight to the file. Otherwise
+ * changes last until the chunk leaves the window.
+ */
+public class StreamingTileStore implements TileSource {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final RegionFile region;
+    private final int chunkSize;
+    private final int chunksWide;
+    private final int chunksHigh;
+    private final int slotsWide;
+    private final int slotsHigh;
+    /**
+     * The chunk held by each slot, set by the loader thread.
+     */
+    private final AtomicReferenceArray<Chunk> slots;
+    /**
+     * The key of the chunk each slot should hold, so the loader can
+     * drop chunks that left the window while they were read.
+     */
+    private final AtomicLongArray wanted;
+    private final ConcurrentLinkedQueue<Point> arrived = new ConcurrentLinkedQueue<>();
+    private final ExecutorService loader;
+    private final int maxId;
+    private volatile int placeholder;
+    private int margin;
+    private int focusX0 = -1, focusY0 = -1, focusX1 = -1, focusY1 = -1;
+    private volatile long loads = 0;
+
+    /**
+     * @param region      is the open region file, closed by {@link #close()}
+     * @param viewWidth   is the most tiles visible across
+     * @param viewHeight  is the most tiles visible down
+     * @param margin      is the number of chunks loaded ahead on every side
+     * @param placeholder is the tile id returned for chunks not loaded yet
+     * @param maxId       is the largest valid tile id, bigger ids in the
+     *                    file read as the placeholder
+     */
+    public StreamingTileStore(RegionFile region, int viewWidth, int viewHeight, int margin, int placeholder, int maxId) {
+        this.region = region;
+        this.chunkSize = region.getChunkSize();
+        this.chunksWide = (region.getWidth() + chunkSize - 1) / chunkSize;
+        this.chunksHigh = (region.getHeight() + chunkSize - 1) / chunkSize;
+        this.margin = margin;
+        this.placeholder = placeholder;
+        this.maxId = maxId;
+        // A view that is not chunk aligned touches one more chunk than it covers
+        slotsWide = Math.min(chunksWide, (viewWidth + chunkSize - 1) / chunkSize + 1 + 2 * margin);
+        slotsHigh = Math.min(chunksHigh, (viewHeight + chunkSize - 1) / chunkSize + 1 + 2 * margin);
+        slots = new AtomicReferenceArray<>(slotsWide * slotsHigh);
+        wanted = new AtomicLongArray(slotsWide * slotsHigh);
+
+        for (int i = 0; i < wanted.length(); i++) {
+            wanted.set(i, NONE);
+        }
+        loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "World Streaming");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the chunks around the given tiles and drops the ones
+     * that are no longer around them.
+     *
+     * @param x0 is the leftmost visible tile column
+     * @param y0 is the topmost visible tile row
+     * @param x1 is the rightmost visible tile column
+     * @param y1 is the bottommost visible tile row
+     */
+    public void focus(int x0, int y0, int x1, int y1) {
+        int cx0 = Math.max(0, Math.floorDiv(x0, chunkSize) - margin);
+        int cy0 = Math.max(0, Math.floorDiv(y0, chunkSize) - margin);
+        int cx1 = Math.min(chunksWide - 1, Math.min(Math.floorDiv(x1, chunkSize) + margin, cx0 + slotsWide - 1));
+        int cy1 = Math.min(chunksHigh - 1, Math.min(Math.floorDiv(y1, chunkSize) + margin, cy0 + slotsHigh - 1));
+
+        if (cx0 == focusX0 && cy0 == focusY0 && cx1 == focusX1 && cy1 == focusY1) {
+            return;
+        }
+        focusX0 = cx0;
+        focusY0 = cy0;
+        focusX1 = cx1;
+        focusY1 = cy1;
+
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int slot = slot(cx, cy);
+                long key = key(cx, cy);
+
+                if (wanted.get(slot) == key) {
+                    continue;
+                }
+                wanted.set(slot, key);
+                evict(slot);
+                int chunkX = cx;
+                int chunkY = cy;
+                loader.execute(() -> load(slot, chunkX, chunkY, key));
+            }
+        }
+    }
+
+    /**
+     * Empties a slot, writing its chunk back when it was changed.
+     */
+    private void evict(int slot) {
+        Chunk old = slots.getAndSet(slot, null);
+
+        if (old != null && old.changed && region.isWritable()) {
+            loader.execute(() -> write(old.cx, old.cy, old.tiles));
+        }
+    }
+
+    /**
+     * Runs on the loader thread.
+     */
+    private void load(int slot, int cx, int cy, long key) {
+        if (wanted.get(slot) != key) {
+            // Left the window before its turn came
+            return;
+        }
+        short[] tiles = new short[chunkSize * chunkSize];
+
+        try {
+            region.readChunk(cx, cy, tiles);
+
+            for (int i = 0; i < tiles.length; i++) {
+                if (tiles[i] < 0 || tiles[i] > maxId) {
+                    tiles[i] = (short) placeholder;
+                }
+            }
+        } catch (IOException e) {
+            Util.error(e, "Could not load chunk " + cx + ", " + cy + ": " + e.getLocalizedMessage());
+            Arrays.fill(tiles, (short) placeholder);
+        }
+        if (wanted.get(slot) == key) {
+            slots.set(slot, new Chunk(cx, cy, tiles));
+            arrived.add(new Point(cx, cy));
+            loads++;
+        }
+    }
+
+    /**
+     * Runs on the loader thread.
+     */
+    private void write(int cx, int cy, short[] tiles) {
+        try {
+            region.writeChunk(cx, cy, tiles);
+        } catch (IOException e) {
+            Util.error(e, "Could not save chunk " + cx + ", " + cy + ": " + e.getLocalizedMessage());
+        }
+    }
+
+    @Override
+    public int get(int x, int y) {
+        int cx = x / chunkSize;
+        int cy = y / chunkSize;
+        Chunk chunk = slots.get(slot(cx, cy));
+
+        if (chunk == null || chunk.cx != cx || chunk.cy != cy) {
+            return placeholder;
+        }
+        return chunk.tiles[(y - cy * chunkSize) * chunkSize + (x - cx * chunkSize)];
+    }
+
+    @Override
+    public void set(int x, int y, int id) {
+        int cx = x / chunkSize;
+        int cy = y / chunkSize;
+        int index = (y - cy * chunkSize) * chunkSize + (x - cx * chunkSize);
+        Chunk chunk = slots.get(slot(cx, cy));
+
+        if (chunk != null && chunk.cx == cx && chunk.cy == cy) {
+            chunk.tiles[index] = (short) id;
+            chunk.changed = true;
+        } else if (region.isWritable()) {
+            // Queued behind any pending load or write of the chunk, so it sees their result
+            loader.execute(() -> {
+                short[] tiles = new short[chunkSize * chunkSize];
+
+                try {
+                    region.readChunk(cx, cy, tiles);
+                    tiles[index] = (short) id;
+                    region.writeChunk(cx, cy, tiles);
+                } catch (IOException e) {
+                    Util.error(e, "Could not change chunk " + cx + ", " + cy + ": " + e.getLocalizedMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Takes the coordinates of a chunk that finished loading since
+     * the last call, in chunks, or null when none did.
+     */
+    public Point pollArrived() {
+        return arrived.poll();
+    }
+
+    /**
+     * Whether the chunk holding the tile has arrived, rather than
+     * reading as the placeholder.
+     */
+    public boolean isLoaded(int x, int y) {
+        int cx = x / chunkSize;
+        int cy = y / chunkSize;
+        Chunk chunk = slots.get(slot(cx, cy));
+        return chunk != null && chunk.cx == cx && chunk.cy == cy;
+    }
+
+    /**
+     * Writes back the changed chunks, stops the loader thread and
+     * closes the region file.
+     */
+    public void close() {
+        for (int slot = 0; slot < slots.length(); slot++) {
+            wanted.set(slot, NONE);
+            evict(slot);
+        }
+        loader.shutdown();
+
+        try {
+            loader.awaitTermination(5, TimeUnit.SECONDS);
+            region.close();
+        } catch (IOException | InterruptedException e) {
+            Util.error(e, e.getLocalizedMessage());
+        }
+    }
+
+    private int slot(int cx, int cy) {
+        return (cy % slotsHigh) * slotsWide + (cx % slotsWide);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public int getWidth() {
+        return region.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return region.getHeight();
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getPlaceholder() {
+        return placeholder;
+    }
+
+    /**
+     * Sets the tile id read for chunks not loaded yet.
+     */
+    public void setPlaceholder(int placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    public int getMargin() {
+        return margin;
+    }
+
+    /**
+     * The number of chunks held at most.
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * The number of chunks read since the start.
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    private static final class Chunk {
+
+        private final int cx;
+        private final int cy;
+        private final short[] tiles;
+        private boolean changed = false;
+
+        private Chunk(int cx, int cy, short[] tiles) {
+            this.cx = cx;
+            this.cy = cy;
+            this.tiles = tiles;
+        }
+    }
+}
@@ -3,75 +3,126 @@
  */
 package tiles;
 
-import math3D.vectors.Vector2f;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 
 /**
- * @author Ian Fannon
+ * A view of one tile id in a {@link TileRegistry}. The properties
+ * live in the registry, so there is one Tile per id and no class
+ * per tile type.
  *
+ * @author Ian Fannon
  */
 public class Tile {
 
 	public static final int TILE_SIZE = 64;
-	public static final Tile[] tiles = new Tile[16];
-
-	public static final Tile grass0 = new GrassTile0(0);
-	public static final Tile grass1 = new GrassTile1(1);
-	public static final Tile grass2 = new GrassTile2(2);
-	public static final Tile brick0 = new BrickTile0(3);
-	public static final Tile brick1 = new BrickTile1(4);
-	public static final Tile brick2 = new BrickTile2(5);
-	public static final Tile path0 = new PathTile0(6);
-	public static final Tile path1 = new PathTile1(7);
-	public static final Tile path2 = new PathTile2(8);
-	public static final Tile dirt = new DirtTile(9);
-	public static final Tile sand = new SandTile(10);
-	public static final Tile flower = new FlowerTile(11);
-	public static final Tile water = new WaterTile(12);
-	public static final Tile mud = new MudTile(13);
-	public static final Tile stone0 = new StoneTile0(14);
-	public static final Tile stone1 = new StoneTile1(15);
-
-	protected final BufferedImage texture;
+	/**
+	 * The tiles of the game, more can be read from a manifest with
+	 * {@link TileRegistry#load}.
+	 */
+	public static final TileRegistry registry = TileRegistry.createDefault();
+
+	public static final Tile grass0 = registry.get(0);
+	public static final Tile grass1 = registry.get(1);
+	public static final Tile grass2 = registry.get(2);
+	public static final Tile brick0 = registry.get(3);
+	public static final Tile brick1 = registry.get(4);
+	public static final Tile brick2 = registry.get(5);
+	public static final Tile path0 = registry.get(6);
+	public static final Tile path1 = registry.get(7);
+	public static final Tile path2 = registry.get(8);
+	public static final Tile dirt = registry.get(9);
+	public static final Tile sand = registry.get(10);
+	public static final Tile flower = registry.get(11);
+	public static final Tile water = registry.get(12);
+	public static final Tile mud = registry.get(13);
+	public static final Tile stone0 = registry.get(14);
+	public static final Tile stone1 = registry.get(15);
+
+	/**
+	 * The time all animated tiles take their frame from, in
+	 * milliseconds, advanced once per update.
+	 */
+	private static long animationTime = 0;
+	private static long animationNanos = 0;
+
+	private final TileRegistry tiles;
 	protected final int id;
-	protected boolean solid = false;
-	protected Vector2f position;
 
-	public Tile(BufferedImage texture, int id, boolean solid) {
-		this.texture = texture;
+	Tile(TileRegistry tiles, int id) {
+		this.tiles = tiles;
 		this.id = id;
-		this.solid = solid;
-		position = new Vector2f();
-		tiles[id] = this;
 	}
 
+	/**
+	 * The tile with the given id, or null when there is none.
+	 */
+	public static Tile get(int id) {
+		return registry.get(id);
+	}
+
+	/**
+	 * Moves the animation clock forward.
+	 *
+	 * @param elapsedNanos is the time since the last update
+	 */
+	public static void advanceAnimation(long elapsedNanos) {
+		animationNanos += elapsedNanos;
+		animationTime = animationNanos / 1_000_000;
+	}
+
+	public static long getAnimationTime() {
+		return animationTime;
+	}
+
+	public boolean isAnimated() {
+		return tiles.isAnimated(id);
+	}
+
+	/**
+	 * The frame to show at the current animation time.
+	 */
+	public BufferedImage getFrame() {
+		BufferedImage[] frames = tiles.getFrames(id);
+
+		if (!tiles.isAnimated(id)) {
+			return frames[0];
+		}
+		return frames[(int) ((animationTime / tiles.getFrameTime(id)) % frames.length)];
+	}
+
+	/**
+	 * Draws the tile's first frame at the given position. Textures
+	 * are prepared at TILE_SIZE, so this is an unscaled copy.
+	 */
 	public void render(Graphics2D g2d, int x, int y) {
-		setPosition(new Vector2f(x, y));
-		g2d.drawImage(texture, x, y, Tile.TILE_SIZE, Tile.TILE_SIZE, null);
+		g2d.drawImage(getTexture(), x, y, null);
 	}
 
 	public boolean isSolid() {
-		return solid;
+		return tiles.isSolid(id);
 	}
 
 	public void setSolid(boolean solid) {
-		this.solid = solid;
+		tiles.setSolid(id, solid);
 	}
 
-	public BufferedImage getTexture() {
-		return texture;
+	/**
+	 * How much slower the tile is to cross than plain ground.
+	 */
+	public float getMovementCost() {
+		return tiles.getMovementCost(id);
 	}
 
-	public int getId() {
-		return id;
+	public BufferedImage getTexture() {
+		return tiles.getFrames(id)[0];
 	}
 
-	public Vector2f getPosition() {
-		return position;
+	public String getName() {
+		return tiles.getName(id);
 	}
 
-	public void setPosition(Vector2f position) {
-		this.position = position;
+	public int getId() {
+		return id;
 	}
 }
@@ -0,0 +1,243 @@
+package tiles;
+
+import textures.Assets;
+import textures.Texture;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every tile type by id. Each property is kept in its own array
+ * indexed by id, so a lookup is one array read, and a {@link Tile}
+ * is only a view of one id. Ids are dense: a tile is registered
+ * either in place of an existing id or with the next free one.
+ * <p>
+ * The tiles the game ships with are registered in code. More are
+ * read from a manifest with one tile per line:
+ * <pre>
+ * # id name solid cost frameTime texture [texture ...]
+ * 16   lava true  1.0  200       tiles/lava0.png tiles/lava1.png
+ * </pre>
+ * Textures are relative to resources/textures. A texture written
+ * as path&gt;dx,dy is scrolled by dx and dy pixels. A tile with more
+ * than one texture shows each for frameTime milliseconds.
+ */
+public class TileRegistry {
+
+    /**
+     * The manifest read by default.
+     */
+    public static final String MANIFEST = "resources/tiles.txt";
+    /**
+     * The most tile types, as many as a {@link TileStore} holds.
+     */
+    public static final int MAX_TILES = TileStore.MAX_ID + 1;
+    private static final String TEXTURES = "resources/textures/";
+
+    private int count = 0;
+    private Tile[] tiles = new Tile[16];
+    private String[] names = new String[16];
+    private BufferedImage[][] frames = new BufferedImage[16][];
+    private long[] frameTime = new long[16];
+    private boolean[] solid = new boolean[16];
+    private float[] movementCost = new float[16];
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * A registry of the tiles the game ships with, using the
+     * textures Assets loaded.
+     */
+    public static TileRegistry createDefault() {
+        TileRegistry registry = new TileRegistry();
+        registry.register(0, "grass0", Assets.tile_grass0, false, 1);
+        registry.register(1, "grass1", Assets.tile_grass1, false, 1);
+        registry.register(2, "grass2", Assets.tile_grass2, false, 1);
+        registry.register(3, "brick0", Assets.tile_brick0, true, 1);
+        registry.register(4, "brick1", Assets.tile_brick1, true, 1);
+        registry.register(5, "brick2", Assets.tile_brick2, true, 1);
+        registry.register(6, "path0", Assets.tile_path0, false, 0.8f);
+        registry.register(7, "path1", Assets.tile_path1, false, 0.8f);
+        registry.register(8, "path2", Assets.tile_path2, false, 0.8f);
+        registry.register(9, "dirt", Assets.tile_dirt, false, 1);
+        registry.register(10, "sand", Assets.tile_sand, false, 1.25f);
+        registry.register(11, "flowers", Assets.tile_flowers_frames, 400, false, 1);
+        registry.register(12, "water", Assets.tile_water_frames, 125, true, 1);
+        registry.register(13, "mud", Assets.tile_mud, false, 1.5f);
+        registry.register(14, "stone0", Assets.tile_stone0, false, 1);
+        registry.register(15, "stone1", Assets.tile_stone1, false, 1);
+        return registry;
+    }
+
+    public Tile register(int id, String name, BufferedImage texture, boolean solid, float movementCost) {
+        return register(id, name, new BufferedImage[]{texture}, 0, solid, movementCost);
+    }
+
+    /**
+     * Registers a tile type, replacing the one with the same id.
+     *
+     * @param frames       are the textures, more than one for an
+     *                     animated tile
+     * @param frameTime    is how long each frame shows in
+     *                     milliseconds
+     * @param movementCost scales the time it takes to cross the tile,
+     *                     1 for plain ground
+     * @return the view of the id
+     * @throws IllegalArgumentException when the id leaves a gap
+     */
+    public Tile register(int id, String name, BufferedImage[] frames, long frameTime, boolean solid, float movementCost) {
+        if (id < 0 || id > count || id >= MAX_TILES) {
+            throw new IllegalArgumentException("Tile " + name + " has id " + id + ", the next free id is " + count);
+        }
+        if (id == count) {
+            if (count == tiles.length) {
+                int size = Math.min(MAX_TILES, count * 2);
+                tiles = Arrays.copyOf(tiles, size);
+                names = Arrays.copyOf(names, size);
+                this.frames = Arrays.copyOf(this.frames, size);
+                this.frameTime = Arrays.copyOf(this.frameTime, size);
+                this.solid = Arrays.copyOf(this.solid, size);
+                this.movementCost = Arrays.copyOf(this.movementCost, size);
+            }
+            tiles[id] = new Tile(this, id);
+            count++;
+        } else {
+            ids.remove(names[id]);
+        }
+        names[id] = name;
+        ids.put(name, id);
+        this.frames[id] = frames;
+        this.frameTime[id] = frameTime;
+        this.solid[id] = solid;
+        this.movementCost[id] = movementCost;
+        return tiles[id];
+    }
+
+    /**
+     * Reads the tiles of a manifest when the file exists.
+     *
+     * @return the number of tiles read
+     */
+    public int load(String manifest) throws IOException {
+        if (!new File(manifest).isFile()) {
+            return 0;
+        }
+        int read = 0;
+        int lineNumber = 0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(manifest))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+
+                if (fields.length < 6) {
+                    throw new IOException(manifest + ":" + lineNumber + ": expected id name solid cost frameTime texture");
+                }
+                try {
+                    BufferedImage[] textures = new BufferedImage[fields.length - 5];
+
+                    for (int i = 0; i < textures.length; i++) {
+                        textures[i] = loadTexture(fields[5 + i]);
+                    }
+                    register(Integer.parseInt(fields[0]), fields[1], textures, Long.parseLong(fields[4]),
+                            Boolean.parseBoolean(fields[2]), Float.parseFloat(fields[3]));
+                    read++;
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(manifest + ":" + lineNumber + ": " + e.getLocalizedMessage(), e);
+                }
+            }
+        }
+        return read;
+    }
+
+    private static BufferedImage loadTexture(String field) {
+        int scroll = field.indexOf('>');
+        String path = scroll < 0 ? field : field.substring(0, scroll);
+        BufferedImage texture = Assets.prepare(new Texture(TEXTURES + path).getTexture(), Tile.TILE_SIZE, Tile.TILE_SIZE);
+
+        if (scroll < 0) {
+            return texture;
+        }
+        String[] offset = field.substring(scroll + 1).split(",");
+        return Assets.scroll(texture, Integer.parseInt(offset[0]), Integer.parseInt(offset[1]));
+    }
+
+    /**
+     * The view of a tile id.
+     *
+     * @return the tile, or null for an id that is not registered
+     */
+    public Tile get(int id) {
+        return id >= 0 && id < count ? tiles[id] : null;
+    }
+
+    /**
+     * The id of a tile by its name.
+     *
+     * @return the id, or -1 when no tile has the name
+     */
+    public int getId(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < count;
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public BufferedImage[] getFrames(int id) {
+        return frames[id];
+    }
+
+    public long getFrameTime(int id) {
+        return frameTime[id];
+    }
+
+    public boolean isAnimated(int id) {
+        return frames[id] != null && frames[id].length > 1 && frameTime[id] > 0;
+    }
+
+    public boolean isSolid(int id) {
+        return solid[id];
+    }
+
+    public void setSolid(int id, boolean solid) {
+        this.solid[id] = solid;
+    }
+
+    public float getMovementCost(int id) {
+        return movementCost[id];
+    }
+
+    /**
+     * The solidity of every id, indexed by id and at least
+     * {@link #size()} long. Reads go straight to the registry, so
+     * the array must not be changed.
+     */
+    public boolean[] getSolid() {
+        return solid;
+    }
+
+    /**
+     * The number of registered tiles, one more than the largest id.
+     */
+    public int size() {
+        return count;
+    }
+}
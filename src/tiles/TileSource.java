@@ -0,0 +1,30 @@
+package tiles;
+
+/**
+ * Where a {@link World} reads its tile ids from, either a map held
+ * completely in memory or one streamed from disk around the camera.
+ */
+public interface TileSource {
+
+    /**
+     * The id of a position without a tile, used by the layers
+     * above the ground.
+     */
+    int EMPTY = -1;
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * The id of the tile at the given position, which must be
+     * inside the map.
+     */
+    int get(int x, int y);
+
+    void set(int x, int y, int id);
+
+    default boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < getWidth() && y < getHeight();
+    }
+}
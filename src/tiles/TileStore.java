@@ -0,0 +1,105 @@
+package tiles;
+
+import java.util.Arrays;
+
+/**
+ * The tile ids of a map in one flat array, row by row, two bytes
+ * per tile. Neighbouring tiles in a row sit next to each other in
+ * memory, so walking the map row by row, as rendering and collision
+ * checks do, reads it in order.
+ */
+public class TileStore implements TileSource {
+
+    /**
+     * The largest tile id that fits in the store.
+     */
+    public static final int MAX_ID = Short.MAX_VALUE;
+
+    private final int width;
+    private final int height;
+    private final short[] tiles;
+
+    public TileStore(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Map size must be positive: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.tiles = new short[width * height];
+    }
+
+    /**
+     * Copies a map indexed [x][y], the layout World used to keep.
+     */
+    public static TileStore of(int[][] map) {
+        TileStore store = new TileStore(map.length, map[0].length);
+
+        for (int x = 0; x < store.width; x++) {
+            for (int y = 0; y < store.height; y++) {
+                store.set(x, y, map[x][y]);
+            }
+        }
+        return store;
+    }
+
+    @Override
+    public int get(int x, int y) {
+        return tiles[y * width + x];
+    }
+
+    /**
+     * @param index is y * width + x
+     */
+    public int get(int index) {
+        return tiles[index];
+    }
+
+    @Override
+    public void set(int x, int y, int id) {
+        tiles[y * width + x] = (short) id;
+    }
+
+    /**
+     * @param index is y * width + x
+     */
+    public void set(int index, int id) {
+        tiles[index] = (short) id;
+    }
+
+    public void fill(int id) {
+        Arrays.fill(tiles, (short) id);
+    }
+
+    @Override
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * The number of tiles in the store.
+     */
+    public int size() {
+        return tiles.length;
+    }
+
+    /**
+     * The backing array, row by row.
+     */
+    public short[] getData() {
+        return tiles;
+    }
+}
@@ -1,11 +0,0 @@
-package tiles;
-
-import textures.Assets;
-
-public class WaterTile extends Tile {
-
-
-    public WaterTile(int id) {
-        super(Assets.tile_water, id, true);
-    }
-}
@@ -1,66 +1,508 @@
 package tiles;
 
+import core.Core;
+import entities.AnimationSystem;
+import entities.BaseEntity;
+import entities.EntityStore;
+import entities.ParallelUpdater;
 import entities.Player;
+import entities.SpatialHash;
+import graphics.Camera;
+import graphics.FrameSnapshot;
+import graphics.RenderQueue;
 import math3D.vectors.Vector2i;
 import utils.Handler;
 import utils.Util;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 public class World {
 
-    private int[][] map;
+    /**
+     * The most baked chunks kept in memory, enough to cover the
+     * screen a few times over.
+     */
+    public static final int CHUNK_CACHE_CAPACITY = 16;
+    /**
+     * The folder levels are loaded from.
+     */
+    public static final String LEVELS = "resources/levels/";
+    /**
+     * The number of chunks streamed in ahead of the camera on every
+     * side in a region backed world.
+     */
+    public static final int STREAMING_MARGIN = 1;
+    /**
+     * The prefix of a level name that generates the level.
+     */
+    public static final String GENERATED = "generated:";
+    /**
+     * The width and height of a generated level without a size.
+     */
+    public static final int GENERATED_SIZE = 256;
+    /**
+     * The tile layers from the bottom up. The ground and decoration
+     * are drawn below the entities, the overhead layer above them.
+     */
+    public static final int LAYER_GROUND = 0, LAYER_DECORATION = 1, LAYER_OVERHEAD = 2;
+    public static final int LAYER_COUNT = 3;
+
+    private TileSource map;
+    /**
+     * The layers above the ground, null where the level has none.
+     */
+    private final TileSource[] layers = new TileSource[LAYER_COUNT];
+    /**
+     * Null for a streamed world, whose collision comes from the
+     * tiles themselves.
+     */
+    private CollisionLayer collision;
+    private ChunkCache overheadCache;
+    /**
+     * Null for a streamed world, which is never whole in memory.
+     */
+    private Minimap minimap;
     private int entity_id;
     private Dimension size;
     private Vector2i spawnPosition;
     private Player player;
+    /**
+     * The player and every other entity of the level.
+     */
+    private EntityStore entities = new EntityStore();
+    /**
+     * The entities by cell, up to date after each movement step.
+     */
+    private SpatialHash spatialHash = new SpatialHash(entities);
+    private final ParallelUpdater updater = new ParallelUpdater();
     private Handler handler;
-
+    private ChunkCache chunkCache;
+
+    /**
+     * Loads a level from the levels folder. A text level that was
+     * converted by {@link MapConverter} is loaded from its binary
+     * copy instead, unless the text was edited since, and a region
+     * file is streamed around the camera.
+     * A name of the form generated:seed[:size] generates a square
+     * level of the given size, {@link #GENERATED_SIZE} by default,
+     * with {@link WorldGenerator}.
+     */
     public World(Handler handler, String filename) {
         this.handler = handler;
-        loadMap("resources/levels/" + filename);
+
+        if (filename.startsWith(GENERATED)) {
+            generate(filename);
+            return;
+        }
+        String file = LEVELS + filename;
+        String binary = MapConverter.toBinaryName(file);
+
+        if (file.endsWith(RegionFile.EXTENSION)) {
+            loadRegion(file);
+            return;
+        }
+        File text = new File(file);
+        File converted = new File(binary);
+
+        if (!file.equals(binary) && converted.isFile()) {
+            if (!text.isFile() || converted.lastModified() >= text.lastModified()) {
+                file = binary;
+            } else {
+                System.out.println(binary + " is older than " + file + ", loading the text level; run MapConverter again");
+            }
+        }
+        loadMap(file);
+    }
+
+    /**
+     * Opens a region file and streams its chunks around the camera
+     * instead of loading the whole map. Until a chunk has arrived
+     * its tiles read as {@link Tile#grass1}, the same as the tiles
+     * outside the map, but block movement.
+     */
+    public void loadRegion(String file) {
+        try {
+            RegionFile region = RegionFile.open(Path.of(file), false);
+            setSize(region.getWidth(), region.getHeight());
+            this.setEntity_id(region.getEntityId());
+            spawnPosition = new Vector2i(region.getSpawnX(), region.getSpawnY());
+            entities = new EntityStore();
+            spatialHash = new SpatialHash(entities);
+            player = new Player(handler, entities, spawnPosition.x, spawnPosition.y);
+            map = new StreamingTileStore(region, handler.getWidth() / Tile.TILE_SIZE + 1, handler.getHeight() / Tile.TILE_SIZE + 1,
+                    STREAMING_MARGIN, Tile.grass1.getId(), Tile.registry.size() - 1);
+            Arrays.fill(layers, null);
+            layers[LAYER_GROUND] = map;
+            createCaches();
+            collision = null;
+            minimap = null;
+        } catch(Exception e) {
+            Util.error(e, e.getLocalizedMessage());
+            Util.exit(-1);
+        }
+    }
+
+    /**
+     * Bakes the ground and decoration into one cache, and the
+     * overhead layer into a second one when the level has it.
+     */
+    private void createCaches() {
+        if (chunkCache != null) {
+            chunkCache.invalidateAll();
+        }
+        if (overheadCache != null) {
+            overheadCache.invalidateAll();
+        }
+        chunkCache = new ChunkCache(this, CHUNK_CACHE_CAPACITY, LAYER_GROUND, LAYER_DECORATION);
+        overheadCache = layers[LAYER_OVERHEAD] != null
+                ? new ChunkCache(this, CHUNK_CACHE_CAPACITY, LAYER_OVERHEAD, LAYER_OVERHEAD) : null;
+    }
+
+    /**
+     * Marks the tiles in the given area solid where a tile on the
+     * ground or decoration layer is. Overhead tiles are walked
+     * under.
+     */
+    private void updateCollision(int x0, int y0, int x1, int y1) {
+        if (collision == null) {
+            return;
+        }
+        // One array read per position instead of a tile fetch and virtual call
+        boolean[] solidIds = Tile.registry.getSolid();
+        TileSource decoration = layers[LAYER_DECORATION];
+
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int id = decoration != null ? decoration.get(x, y) : TileSource.EMPTY;
+                collision.setSolid(x, y, solidIds[map.get(x, y)] || (id != TileSource.EMPTY && solidIds[id]));
+            }
+        }
+    }
+
+    /**
+     * Whether the tile at the given position blocks movement.
+     */
+    public boolean isSolid(int x, int y) {
+        if (collision != null) {
+            return collision.isSolid(x, y);
+        }
+        // Nothing may walk into a chunk before its walls have arrived
+        if (map instanceof StreamingTileStore streaming && x >= 0 && y >= 0 && x < size.width && y < size.height
+                && !streaming.isLoaded(x, y)) {
+            return true;
+        }
+        return getTile(x, y).isSolid();
+    }
+
+    /**
+     * Advances the tile animations. For a region backed world also
+     * streams in the chunks around the camera and rebakes the cached
+     * chunks that were drawn with placeholders.
+     */
+    public void update() {
+        Tile.advanceAnimation(Core.delta);
+
+        if (!(map instanceof StreamingTileStore streaming)) {
+            return;
+        }
+        Camera camera = handler.getCamera();
+        int x0 = (int) Math.floor(camera.getxOffset() / Tile.TILE_SIZE);
+        int y0 = (int) Math.floor(camera.getyOffset() / Tile.TILE_SIZE);
+        streaming.focus(x0, y0, x0 + handler.getWidth() / Tile.TILE_SIZE + 1, y0 + handler.getHeight() / Tile.TILE_SIZE + 1);
+        Point chunk;
+
+        while ((chunk = streaming.pollArrived()) != null) {
+            int size = streaming.getChunkSize();
+
+            for (int y = chunk.y * size; y < (chunk.y + 1) * size; y += ChunkCache.CHUNK_SIZE) {
+                for (int x = chunk.x * size; x < (chunk.x + 1) * size; x += ChunkCache.CHUNK_SIZE) {
+                    invalidate(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the entity systems over every entity: remembers the
+     * previous positions, advances the animations, lets every entity
+     * act and moves it against the solid tiles on all cores with
+     * {@link ParallelUpdater}, files the moved ones under their new
+     * cells, and then lets each one update itself on this thread.
+     * Entities created during their updates are filed next tick.
+     */
+    public void updateEntities() {
+        entities.storePreviousPositions();
+        AnimationSystem.update(entities, Core.delta);
+        updater.update(entities, this);
+        spatialHash.updateAll();
+
+        for (int id = 0; id < entities.size(); id++) {
+            BaseEntity entity = entities.get(id);
+
+            if (entity != null) {
+                entity.update();
+            }
+        }
+    }
+
+    /**
+     * Stops streaming and closes the region file of a region backed
+     * world.
+     */
+    public void cleanUp() {
+        if (map instanceof StreamingTileStore streaming) {
+            streaming.close();
+        }
+    }
+
+    /**
+     * Generates a level from a name of the form generated:seed[:size].
+     */
+    private void generate(String name) {
+        try {
+            String[] parts = name.substring(GENERATED.length()).split(":");
+            int levelSize = parts.length > 1 ? Integer.parseInt(parts[1]) : GENERATED_SIZE;
+            long start = System.nanoTime();
+            MapFile level = new WorldGenerator(Long.parseLong(parts[0])).generate(levelSize, levelSize);
+            System.out.printf("Generated %dx%d level in %.1f ms%n", levelSize, levelSize, (System.nanoTime() - start) / 1e6);
+            load(level);
+        } catch(Exception e) {
+            Util.error(e, "Could not generate " + name + ": " + e.getLocalizedMessage());
+            Util.exit(-1);
+        }
     }
 
     public void loadMap(String file) {
-        String[] tokens = Util.loadFileAsString(file).split("\\s+");
-        setSize(Util.parseInt(tokens[0]), Util.parseInt(tokens[1]));
-        this.setEntity_id(Util.parseInt(tokens[2]));
-        spawnPosition = new Vector2i(Util.parseInt(tokens[3]), Util.parseInt(tokens[4]));
-        player = new Player(handler, spawnPosition.x, spawnPosition.y);
-        map = new int[size.width][size.height];
+        try {
+            load(MapFile.read(file));
+        } catch(Exception e) {
+            Util.error(e, e.getLocalizedMessage());
+            Util.exit(-1);
+        }
+    }
 
-        for (int y = 0; y < size.height; y++) {
-            for (int x = 0; x < size.width; x++) {
-                try {
-                    setMap(x, y, Util.parseInt(tokens[(x + y * size.width) + 5]));
-                } catch(Exception e) {
-                    Util.error(e, e.getLocalizedMessage());
-                    Util.exit(-1);
+    /**
+     * Replaces the map with a level and puts the player at its
+     * spawn.
+     */
+    public void load(MapFile level) throws Exception {
+        TileStore tiles = level.getTiles();
+
+        for (int i = 0; i < tiles.size(); i++) {
+            checkTileId(tiles.get(i));
+        }
+        for (int layer = 1; layer < level.getLayers().length; layer++) {
+            TileStore store = level.getLayers()[layer];
+
+            for (int i = 0; i < store.size(); i++) {
+                if (store.get(i) != TileSource.EMPTY) {
+                    checkTileId(store.get(i));
                 }
             }
         }
+        setSize(tiles.getWidth(), tiles.getHeight());
+        this.setEntity_id(level.getEntityId());
+        spawnPosition = new Vector2i(level.getSpawnX(), level.getSpawnY());
+        entities = new EntityStore();
+        spatialHash = new SpatialHash(entities);
+        player = new Player(handler, entities, spawnPosition.x, spawnPosition.y);
+        map = tiles;
+        Arrays.fill(layers, null);
+        layers[LAYER_GROUND] = map;
+
+        for (int layer = 1; layer < level.getLayers().length; layer++) {
+            layers[layer] = level.getLayers()[layer];
+        }
+        createCaches();
+        collision = new CollisionLayer(size.width, size.height);
+        updateCollision(0, 0, size.width, size.height);
+        minimap = new Minimap(handler, this);
     }
 
     public void render(Graphics2D g2d) {
-        int xStart = (int) Math.max(0, handler.getCamera().getxOffset() / Tile.TILE_SIZE);
-        int xEnd = (int) Math.min(size.width, (handler.getCamera().getxOffset() + handler.getWidth()) / Tile.TILE_SIZE + 1);
-        int yStart = (int) Math.max(0, handler.getCamera().getyOffset() / Tile.TILE_SIZE);
-        int yEnd = (int) Math.min(size.height, (handler.getCamera().getyOffset() + handler.getHeight()) / Tile.TILE_SIZE + 1);
-
-        for(int y = yStart; y < yEnd; y++){
-            for(int x = xStart; x < xEnd; x++){
-                getTile(x, y).render(g2d, (int) (x * Tile.TILE_SIZE - handler.getCamera().getxOffset()),
-                        (int) (y * Tile.TILE_SIZE - handler.getCamera().getyOffset()));
+        render(g2d, 1.0f);
+    }
+
+    /**
+     * Renders the visible tiles and the player using the camera
+     * offsets interpolated between the previous and the current
+     * update.
+     *
+     * @param g2d   is the graphics object
+     * @param alpha is the interpolation between updates
+     */
+    public void render(Graphics2D g2d, float alpha) {
+        RenderQueue queue = handler.getRenderQueue();
+        render(queue, alpha);
+        queue.flush(g2d);
+    }
+
+    /**
+     * Queues the baked ground and decoration chunks overlapping the
+     * screen on the ground layer, the entities on the entity layer and
+     * the overhead chunks above it, using the camera offsets
+     * interpolated between the previous and the current update.
+     * The current frames of animated tiles are drawn over the
+     * chunks.
+     *
+     * @param queue is the render queue
+     * @param alpha is the interpolation between updates
+     */
+    public void render(RenderQueue queue, float alpha) {
+        float xOffset = handler.getCamera().getLerpxOffset(alpha);
+        float yOffset = handler.getCamera().getLerpyOffset(alpha);
+        int xStart = (int) Math.max(0, xOffset / ChunkCache.CHUNK_PIXELS);
+        int xEnd = (int) Math.min(getChunksWide(), (xOffset + handler.getWidth()) / ChunkCache.CHUNK_PIXELS + 1);
+        int yStart = (int) Math.max(0, yOffset / ChunkCache.CHUNK_PIXELS);
+        int yEnd = (int) Math.min(getChunksHigh(), (yOffset + handler.getHeight()) / ChunkCache.CHUNK_PIXELS + 1);
+
+        for (int y = yStart; y < yEnd; y++) {
+            for (int x = xStart; x < xEnd; x++) {
+                int screenX = (int) (x * ChunkCache.CHUNK_PIXELS - xOffset);
+                int screenY = (int) (y * ChunkCache.CHUNK_PIXELS - yOffset);
+                BufferedImage chunk = chunkCache.getChunk(x, y);
+                queue.submit(chunk, screenX, screenY, chunk.getWidth(), chunk.getHeight(), RenderQueue.LAYER_GROUND, 0);
+                submitAnimated(queue, chunkCache, x, y, screenX, screenY, RenderQueue.LAYER_GROUND);
+
+                if (overheadCache != null) {
+                    if ((chunk = overheadCache.getChunk(x, y)) != null) {
+                        queue.submit(chunk, screenX, screenY, chunk.getWidth(), chunk.getHeight(), RenderQueue.LAYER_OVERHEAD, 0);
+                    }
+                    submitAnimated(queue, overheadCache, x, y, screenX, screenY, RenderQueue.LAYER_OVERHEAD);
+                }
+            }
+        }
+        for (int id = 0; id < entities.size(); id++) {
+            BaseEntity entity = entities.get(id);
+
+            if (entity != null) {
+                entity.render(queue, alpha);
             }
         }
-        player.render(g2d);
+    }
+
+    /**
+     * Queues the current frames of the animated cells of a chunk
+     * over its baked image. Every cached layer of a cell is drawn
+     * again in order, so tiles above an animated one stay on top.
+     */
+    private void submitAnimated(RenderQueue queue, ChunkCache cache, int chunkX, int chunkY,
+                                int screenX, int screenY, int renderLayer) {
+        for (int cell : cache.getAnimatedCells(chunkX, chunkY)) {
+            int x = cell % ChunkCache.CHUNK_SIZE;
+            int y = cell / ChunkCache.CHUNK_SIZE;
+
+            for (int layer = cache.getFirstLayer(); layer <= cache.getLastLayer(); layer++) {
+                Tile tile = getAnimatedTile(cache, layer, chunkX * ChunkCache.CHUNK_SIZE + x, chunkY * ChunkCache.CHUNK_SIZE + y);
+
+                if (tile != null) {
+                    queue.submit(tile.getFrame(), screenX + x * Tile.TILE_SIZE, screenY + y * Tile.TILE_SIZE,
+                            Tile.TILE_SIZE, Tile.TILE_SIZE, renderLayer, 1 + layer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Like {@link #submitAnimated} but copies the frames into a
+     * snapshot.
+     */
+    private void addAnimated(FrameSnapshot snapshot, ChunkCache cache, int chunkX, int chunkY, int renderLayer) {
+        for (int cell : cache.getAnimatedCells(chunkX, chunkY)) {
+            int x = chunkX * ChunkCache.CHUNK_SIZE + cell % ChunkCache.CHUNK_SIZE;
+            int y = chunkY * ChunkCache.CHUNK_SIZE + cell / ChunkCache.CHUNK_SIZE;
+
+            for (int layer = cache.getFirstLayer(); layer <= cache.getLastLayer(); layer++) {
+                Tile tile = getAnimatedTile(cache, layer, x, y);
+
+                if (tile != null) {
+                    snapshot.addChunk(tile.getFrame(), x * Tile.TILE_SIZE, y * Tile.TILE_SIZE, renderLayer, 1 + layer);
+                }
+            }
+        }
+    }
+
+    /**
+     * The tile of an animated cell to draw over the chunk: every
+     * tile for an opaque cache, which baked the cell, and only the
+     * animated ones for a translucent cache, which left them out.
+     */
+    private Tile getAnimatedTile(ChunkCache cache, int layer, int x, int y) {
+        Tile tile = getTile(layer, x, y);
+
+        if (tile == null || (!cache.isOpaque() && !tile.isAnimated())) {
+            return null;
+        }
+        return tile;
+    }
+
+    /**
+     * Copies the camera offsets, the baked chunks visible at either
+     * the previous or the current camera position, and every entity
+     * into the snapshot. Chunks are baked here, on the update
+     * thread, so the render thread never touches the cache.
+     *
+     * @param snapshot is the snapshot to fill
+     */
+    public void captureSnapshot(FrameSnapshot snapshot) {
+        Camera camera = handler.getCamera();
+        float prevX = camera.getLerpxOffset(0);
+        float prevY = camera.getLerpyOffset(0);
+        snapshot.setCamera(prevX, prevY, camera.getxOffset(), camera.getyOffset());
+        int xStart = (int) Math.max(0, Math.min(prevX, camera.getxOffset()) / ChunkCache.CHUNK_PIXELS);
+        int xEnd = (int) Math.min(getChunksWide(), (Math.max(prevX, camera.getxOffset()) + handler.getWidth()) / ChunkCache.CHUNK_PIXELS + 1);
+        int yStart = (int) Math.max(0, Math.min(prevY, camera.getyOffset()) / ChunkCache.CHUNK_PIXELS);
+        int yEnd = (int) Math.min(getChunksHigh(), (Math.max(prevY, camera.getyOffset()) + handler.getHeight()) / ChunkCache.CHUNK_PIXELS + 1);
+
+        for (int y = yStart; y < yEnd; y++) {
+            for (int x = xStart; x < xEnd; x++) {
+                snapshot.addChunk(chunkCache.getChunk(x, y), x * ChunkCache.CHUNK_PIXELS, y * ChunkCache.CHUNK_PIXELS,
+                        RenderQueue.LAYER_GROUND);
+                addAnimated(snapshot, chunkCache, x, y, RenderQueue.LAYER_GROUND);
+
+                if (overheadCache != null) {
+                    BufferedImage overhead = overheadCache.getChunk(x, y);
+
+                    if (overhead != null) {
+                        snapshot.addChunk(overhead, x * ChunkCache.CHUNK_PIXELS, y * ChunkCache.CHUNK_PIXELS,
+                                RenderQueue.LAYER_OVERHEAD);
+                    }
+                    addAnimated(snapshot, overheadCache, x, y, RenderQueue.LAYER_OVERHEAD);
+                }
+            }
+        }
+        for (int id = 0; id < entities.size(); id++) {
+            BaseEntity entity = entities.get(id);
+
+            if (entity != null) {
+                entity.captureSnapshot(snapshot);
+            }
+        }
+    }
+
+    /**
+     * The number of chunk columns covering the map.
+     */
+    public int getChunksWide() {
+        return (size.width + ChunkCache.CHUNK_SIZE - 1) / ChunkCache.CHUNK_SIZE;
+    }
+
+    /**
+     * The number of chunk rows covering the map.
+     */
+    public int getChunksHigh() {
+        return (size.height + ChunkCache.CHUNK_SIZE - 1) / ChunkCache.CHUNK_SIZE;
     }
 
     public Tile getTile(int x, int y) {
         if (x < 0 || y < 0 || x >= size.width || y >= size.height) {
             return Tile.grass1;
         }
-        Tile tile = Tile.tiles[map[x][y]];
+        Tile tile = Tile.registry.get(map.get(x, y));
 
         if (tile == null) {
             return Tile.dirt;
@@ -69,42 +511,175 @@ public class World {
         }
     }
 
-    public int[][] getMap() {
+    /**
+     * The tile of one layer at the given position.
+     *
+     * @return the tile, or null where the layer has none
+     */
+    public Tile getTile(int layer, int x, int y) {
+        if (layer == LAYER_GROUND) {
+            return getTile(x, y);
+        }
+        TileSource source = layers[layer];
+
+        if (source == null || !source.contains(x, y)) {
+            return null;
+        }
+        int id = source.get(x, y);
+        return id == TileSource.EMPTY ? null : Tile.registry.get(id);
+    }
+
+    /**
+     * Changes the tile of one layer, rebaking the chunk holding it
+     * and updating its collision. Placing a tile on a layer the
+     * level did not have adds that layer.
+     *
+     * @param id is the tile id, or {@link TileSource#EMPTY} to clear
+     *           an upper layer
+     */
+    public void setTile(int layer, int x, int y, int id) throws Exception {
+        if (!map.contains(x, y)) {
+            throw new Exception("Index-x or Index-y is greater then the width or height of the map!");
+        }
+        if (layer != LAYER_GROUND && id == TileSource.EMPTY) {
+            if (layers[layer] != null) {
+                layers[layer].set(x, y, id);
+            }
+        } else {
+            checkTileId(id);
+
+            if (layers[layer] == null) {
+                TileStore store = new TileStore(size.width, size.height);
+                store.fill(TileSource.EMPTY);
+                layers[layer] = store;
+                createCaches();
+            }
+            layers[layer].set(x, y, id);
+        }
+        invalidate(x, y);
+        updateCollision(x, y, x + 1, y + 1);
+
+        if (minimap != null) {
+            minimap.update(x, y);
+        }
+    }
+
+    /**
+     * Drops the baked chunks holding the given tile.
+     */
+    private void invalidate(int x, int y) {
+        chunkCache.invalidate(x, y);
+
+        if (overheadCache != null) {
+            overheadCache.invalidate(x, y);
+        }
+    }
+
+    public TileSource getLayer(int layer) {
+        return layers[layer];
+    }
+
+    /**
+     * The minimap, or null for a streamed world.
+     */
+    public Minimap getMinimap() {
+        return minimap;
+    }
+
+    public CollisionLayer getCollision() {
+        return collision;
+    }
+
+    public TileSource getMap() {
         return map;
     }
 
-    public void setMap(int[][] map) {
+    /**
+     * Replaces the tiles of the map. A source of another size
+     * resizes the map and drops the upper layers, which no longer
+     * fit.
+     *
+     * @throws Exception when the source holds an id that is not a tile
+     */
+    public void setMap(TileSource map) throws Exception {
+        for (int y = 0; y < map.getHeight(); y++) {
+            for (int x = 0; x < map.getWidth(); x++) {
+                checkTileId(map.get(x, y));
+            }
+        }
         this.map = map;
+
+        if (map.getWidth() != size.width || map.getHeight() != size.height) {
+            setSize(map.getWidth(), map.getHeight());
+            Arrays.fill(layers, null);
+            layers[LAYER_GROUND] = map;
+            createCaches();
+            collision = new CollisionLayer(size.width, size.height);
+            updateCollision(0, 0, size.width, size.height);
+            minimap = new Minimap(handler, this);
+            return;
+        }
+        layers[LAYER_GROUND] = map;
+
+        if (chunkCache != null) {
+            chunkCache.invalidateAll();
+        }
+        updateCollision(0, 0, size.width, size.height);
+
+        if (minimap != null) {
+            minimap.update(0, 0, size.width, size.height);
+        }
+    }
+
+    /**
+     * Replaces the tiles of the map with a copy of the given
+     * [x][y] array.
+     *
+     * @throws Exception when the array holds an id that is not a tile
+     */
+    public void setMap(int[][] map) throws Exception {
+        setMap(TileStore.of(map));
     }
 
     public int getMapIndex(int indexX, int indexY) {
-        return map[indexX][indexY];
+        return map.get(indexX, indexY);
     }
 
+    /**
+     * @param index is the tile's position in the map counted row
+     *              by row, y * width + x
+     */
     public int getMapIndex(int index) {
-        return map[index][index];
+        return map.get(index % size.width, index / size.width);
     }
 
     public void setMap(int[] indexX, int[] indexY) {
         for (int y = 0; y < size.height; y++) {
             for (int x = 0; x < size.width; x++) {
                 if(indexX.length < size.width || indexY.length < size.height) {
-                    map[x][y] = map[indexX[x]][indexY[y]];
+                    map.set(x, y, map.get(indexX[x], indexY[y]));
                 }
             }
         }
+        if (chunkCache != null) {
+            chunkCache.invalidateAll();
+        }
+        updateCollision(0, 0, size.width, size.height);
+
+        if (minimap != null) {
+            minimap.update(0, 0, size.width, size.height);
+        }
     }
 
     public void setMap(int indexX, int indexY, int value) throws Exception {
-        if(indexX <= size.width || indexY <= size.height) {
-            if(value < 16) {
-                map[indexX][indexY] = value;
-            } else {
-                throw new Exception("Value is greater then the tile id's!");
-            }
-        } else {
-            throw new Exception("Index-x or Index-y is greater then the width or height of the map!");
+        setTile(LAYER_GROUND, indexX, indexY, value);
+    }
+
+    private static int checkTileId(int value) throws Exception {
+        if (!Tile.registry.contains(value)) {
+            throw new Exception("Value is greater then the tile id's!");
         }
+        return value;
     }
 
     public int getEntity_id() {
@@ -177,6 +752,18 @@ public class World {
         size = new Dimension(width, height);
     }
 
+    public EntityStore getEntities() {
+        return entities;
+    }
+
+    /**
+     * The broad phase for finding the entities near a point or
+     * overlapping a region.
+     */
+    public SpatialHash getSpatialHash() {
+        return spatialHash;
+    }
+
     public Player getPlayer() {
         return player;
     }
@@ -185,6 +772,10 @@ public class World {
         this.player = player;
     }
 
+    public ChunkCache getChunkCache() {
+        return chunkCache;
+    }
+
     public Handler getHandler() {
         return handler;
     }
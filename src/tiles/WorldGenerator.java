@@ -0,0 +1,307 @@
+package tiles;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates a seeded world out of the existing tiles: water in the
+ * lowlands with sand on the shores, grass with flowers, mud where it
+ * is wet, stone on the heights and winding paths, walled in by
+ * bricks.
+ * <p>
+ * The map is generated in chunks of {@link #CHUNK_SIZE} tiles, in
+ * parallel on a fork join pool. The terrain comes from value noise
+ * hashed from the seed and the tile position, and the scattered
+ * details from a random generator per chunk split off the seed
+ * along the fixed task tree, so the world is the same for a seed
+ * whatever the number of threads.
+ */
+public class WorldGenerator {
+
+    /**
+     * The width and height of a generated chunk in tiles.
+     */
+    public static final int CHUNK_SIZE = 64;
+
+    /**
+     * The most chunks one task generates without forking.
+     */
+    private static final int LEAF_CHUNKS = 4;
+    /**
+     * The noise octaves as lattice spacing in tiles, coarse first.
+     */
+    private static final int[] OCTAVES = {64, 16, 4};
+    private static final float[] OCTAVE_WEIGHTS = {0.6f, 0.3f, 0.1f};
+    private static final int PATH_SCALE = 48;
+
+    private static final float WATER_LEVEL = 0.32f;
+    private static final float SHORE_LEVEL = 0.37f;
+    private static final float STONE_LEVEL = 0.70f;
+    private static final float MUD_LEVEL = 0.66f;
+    private static final float PATH_WIDTH = 0.018f;
+    private static final double FLOWER_CHANCE = 0.03;
+
+    private static final long ELEVATION_SALT = 0x5DEECE66DL;
+    private static final long MOISTURE_SALT = 0x2545F4914F6CDD1DL;
+    private static final long PATH_SALT = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final ForkJoinPool pool;
+
+    /**
+     * Takes the chunks of a world as they are generated. Called from
+     * the threads of the pool at the same time for different chunks,
+     * and the array is reused once it returns.
+     */
+    public interface ChunkSink {
+
+        /**
+         * @param x       is the left tile of the chunk
+         * @param y       is the top tile of the chunk
+         * @param columns is the width of the chunk, less than
+         *                CHUNK_SIZE on the right edge
+         * @param rows    is the height of the chunk, less than
+         *                CHUNK_SIZE on the bottom edge
+         * @param tiles   are the tile ids row by row, CHUNK_SIZE apart
+         */
+        void accept(int x, int y, int columns, int rows, short[] tiles);
+    }
+
+    /**
+     * A generator running on the common pool.
+     */
+    public WorldGenerator(long seed) {
+        this(seed, ForkJoinPool.commonPool());
+    }
+
+    public WorldGenerator(long seed, ForkJoinPool pool) {
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * Generates a whole level, with the player spawning on open
+     * ground closest to the middle.
+     */
+    public MapFile generate(int width, int height) {
+        TileStore tiles = new TileStore(width, height);
+        short[] data = tiles.getData();
+        generate(width, height, (x, y, columns, rows, chunk) -> {
+            for (int row = 0; row < rows; row++) {
+                System.arraycopy(chunk, row * CHUNK_SIZE, data, (y + row) * width + x, columns);
+            }
+        });
+        int spawn = findSpawn(tiles);
+        return new MapFile(tiles, 0, (spawn % width) * Tile.TILE_SIZE, (spawn / width) * Tile.TILE_SIZE);
+    }
+
+    /**
+     * Generates a world chunk by chunk into the sink without keeping
+     * it, for worlds too large to hold.
+     */
+    public void generate(int width, int height, ChunkSink sink) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("World size must be positive: " + width + "x" + height);
+        }
+        int chunksWide = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int chunksHigh = (height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        pool.invoke(new ChunkTask(width, height, chunksWide, 0, chunksWide * chunksHigh, new SplittableRandom(seed), sink));
+    }
+
+    /**
+     * Generates the chunks from start to end in row order, splitting
+     * the range and its random generator in halves until it is small.
+     */
+    private final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int width, height, chunksWide, start, end;
+        private final SplittableRandom random;
+        private final ChunkSink sink;
+
+        private ChunkTask(int width, int height, int chunksWide, int start, int end, SplittableRandom random, ChunkSink sink) {
+            this.width = width;
+            this.height = height;
+            this.chunksWide = chunksWide;
+            this.start = start;
+            this.end = end;
+            this.random = random;
+            this.sink = sink;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > LEAF_CHUNKS) {
+                int middle = (start + end) >>> 1;
+                // The split depends only on the range, never on which thread runs it
+                ChunkTask left = new ChunkTask(width, height, chunksWide, start, middle, random.split(), sink);
+                ChunkTask right = new ChunkTask(width, height, chunksWide, middle, end, random, sink);
+                invokeAll(left, right);
+                return;
+            }
+            short[] tiles = new short[CHUNK_SIZE * CHUNK_SIZE];
+            float[] elevation = new float[CHUNK_SIZE * CHUNK_SIZE];
+            float[] moisture = new float[CHUNK_SIZE * CHUNK_SIZE];
+            float[] path = new float[CHUNK_SIZE * CHUNK_SIZE];
+            int latticeSize = CHUNK_SIZE / OCTAVES[OCTAVES.length - 1] + 2;
+            float[] lattice = new float[latticeSize * latticeSize];
+
+            for (int chunk = start; chunk < end; chunk++) {
+                int x = (chunk % chunksWide) * CHUNK_SIZE;
+                int y = (chunk / chunksWide) * CHUNK_SIZE;
+                int columns = Math.min(CHUNK_SIZE, width - x);
+                int rows = Math.min(CHUNK_SIZE, height - y);
+                generateChunk(x, y, columns, rows, width, height, random.split(), tiles, elevation, moisture, path, lattice);
+                sink.accept(x, y, columns, rows, tiles);
+            }
+        }
+    }
+
+    private void generateChunk(int x0, int y0, int columns, int rows, int width, int height, SplittableRandom random,
+                               short[] tiles, float[] elevation, float[] moisture, float[] path, float[] lattice) {
+        Arrays.fill(elevation, 0);
+        Arrays.fill(moisture, 0);
+        Arrays.fill(path, 0);
+
+        for (int octave = 0; octave < OCTAVES.length; octave++) {
+            addNoise(elevation, x0, y0, columns, rows, OCTAVES[octave], seed ^ (ELEVATION_SALT + octave), OCTAVE_WEIGHTS[octave], lattice);
+            addNoise(moisture, x0, y0, columns, rows, OCTAVES[octave], seed ^ (MOISTURE_SALT + octave), OCTAVE_WEIGHTS[octave], lattice);
+        }
+        addNoise(path, x0, y0, columns, rows, PATH_SCALE, seed ^ PATH_SALT, 1, lattice);
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int i = row * CHUNK_SIZE + column;
+                int x = x0 + column;
+                int y = y0 + row;
+                Tile tile;
+
+                if (x == 0 || y == 0 || x == width - 1 || y == height - 1) {
+                    tile = Tile.brick0;
+                } else if (elevation[i] < WATER_LEVEL) {
+                    tile = Tile.water;
+                } else if (elevation[i] < SHORE_LEVEL) {
+                    tile = Tile.sand;
+                } else if (Math.abs(path[i] - 0.5f) < PATH_WIDTH) {
+                    tile = pick(random, Tile.path0, Tile.path1, Tile.path2);
+                } else if (elevation[i] > STONE_LEVEL) {
+                    tile = random.nextInt(4) == 0 ? Tile.stone1 : Tile.stone0;
+                } else if (moisture[i] > MUD_LEVEL) {
+                    tile = Tile.mud;
+                } else if (random.nextDouble() < FLOWER_CHANCE) {
+                    tile = Tile.flower;
+                } else {
+                    tile = pick(random, Tile.grass0, Tile.grass1, Tile.grass2);
+                }
+                tiles[i] = (short) tile.getId();
+            }
+        }
+    }
+
+    private static Tile pick(SplittableRandom random, Tile a, Tile b, Tile c) {
+        int roll = random.nextInt(8);
+        return roll < 6 ? a : roll == 6 ? b : c;
+    }
+
+    /**
+     * Adds one octave of smoothed value noise over the chunk. The
+     * lattice values it interpolates are hashed once per chunk, so
+     * a tile costs one interpolation.
+     */
+    private static void addNoise(float[] out, int x0, int y0, int columns, int rows, int scale, long salt, float weight,
+                                 float[] lattice) {
+        int lx0 = Math.floorDiv(x0, scale);
+        int ly0 = Math.floorDiv(y0, scale);
+        int latticeWide = Math.floorDiv(x0 + columns - 1, scale) - lx0 + 2;
+        int latticeHigh = Math.floorDiv(y0 + rows - 1, scale) - ly0 + 2;
+
+        for (int ly = 0; ly < latticeHigh; ly++) {
+            for (int lx = 0; lx < latticeWide; lx++) {
+                lattice[ly * latticeWide + lx] = hash(salt, lx0 + lx, ly0 + ly);
+            }
+        }
+        float step = 1f / scale;
+        // Offsets of the first tile inside its lattice cell
+        int startX = x0 - lx0 * scale;
+        int cellY = y0 - ly0 * scale;
+        int ly = 0;
+
+        for (int row = 0; row < rows; row++, cellY++) {
+            if (cellY == scale) {
+                cellY = 0;
+                ly++;
+            }
+            float ty = smooth(cellY * step);
+            int cellX = startX;
+            int corner = ly * latticeWide;
+            int index = row * CHUNK_SIZE;
+
+            for (int column = 0; column < columns; column++, cellX++) {
+                if (cellX == scale) {
+                    cellX = 0;
+                    corner++;
+                }
+                float tx = smooth(cellX * step);
+                float top = lattice[corner] + (lattice[corner + 1] - lattice[corner]) * tx;
+                float bottom = lattice[corner + latticeWide] + (lattice[corner + latticeWide + 1] - lattice[corner + latticeWide]) * tx;
+                out[index + column] += (top + (bottom - top) * ty) * weight;
+            }
+        }
+    }
+
+    private static float smooth(float t) {
+        return t * t * (3 - 2 * t);
+    }
+
+    /**
+     * A value in [0, 1) for a lattice point, mixed the way
+     * SplittableRandom mixes its seeds.
+     */
+    private static float hash(long salt, int x, int y) {
+        long h = salt + x * 0xBF58476D1CE4E5B9L + y * 0x94D049BB133111EBL;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (h >>> 40) / (float) (1 << 24);
+    }
+
+    /**
+     * The index of the open two by two tiles closest to the middle
+     * of the map, so the player does not spawn in water or a wall.
+     */
+    private static int findSpawn(TileStore tiles) {
+        int width = tiles.getWidth();
+        int height = tiles.getHeight();
+        int centerX = width / 2;
+        int centerY = height / 2;
+
+        for (int radius = 0; radius < Math.max(width, height); radius++) {
+            for (int y = centerY - radius; y <= centerY + radius; y++) {
+                for (int x = centerX - radius; x <= centerX + radius; x++) {
+                    boolean ring = Math.abs(x - centerX) == radius || Math.abs(y - centerY) == radius;
+
+                    if (ring && isOpen(tiles, x, y) && isOpen(tiles, x + 1, y)
+                            && isOpen(tiles, x, y + 1) && isOpen(tiles, x + 1, y + 1)) {
+                        return y * width + x;
+                    }
+                }
+            }
+        }
+        return centerY * width + centerX;
+    }
+
+    private static boolean isOpen(TileStore tiles, int x, int y) {
+        if (!tiles.contains(x, y)) {
+            return false;
+        }
+        Tile tile = Tile.get(tiles.get(x, y));
+        return tile != null && !tile.isSolid();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,75 @@
+package utils;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces frames to a target rate using a hybrid wait. The pacer
+ * parks the thread for most of the remaining frame time and then
+ * spins for the last part, since sleeping alone can overshoot the
+ * deadline by several milliseconds.
+ */
+public final class FramePacer {
+
+    /**
+     * The time left in a frame below which the pacer spins
+     * instead of parking the thread.
+     */
+    public static final long SPIN_THRESHOLD = 2_000_000L;
+
+    private final long frameTime;
+    private long nextFrame = 0;
+
+    /**
+     * @param targetFps is the frame rate to pace to, zero or
+     *                  less leaves the frame rate uncapped
+     */
+    public FramePacer(double targetFps) {
+        this.frameTime = targetFps > 0 ? (long) (1_000_000_000 / targetFps) : 0;
+    }
+
+    /**
+     * Waits until the start of the next frame. When the frame
+     * took longer than the target the deadline is moved to now,
+     * so a slow frame does not cause a burst of fast ones.
+     */
+    public void sync() {
+        if (frameTime <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+
+        if (nextFrame == 0) {
+            nextFrame = now;
+        }
+        nextFrame += frameTime;
+
+        if (nextFrame - now <= 0) {
+            nextFrame = now;
+            return;
+        }
+        long remaining;
+
+        while ((remaining = nextFrame - System.nanoTime()) > SPIN_THRESHOLD) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+        }
+        while (nextFrame - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Forgets the current deadline, for example after the
+     * game was paused.
+     */
+    public void reset() {
+        nextFrame = 0;
+    }
+
+    public long getFrameTime() {
+        return frameTime;
+    }
+
+    public boolean isUncapped() {
+        return frameTime <= 0;
+    }
+}
@@ -0,0 +1,214 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Records how long each phase of a frame took, in nanoseconds,
+ * for the last {@link #getCapacity()} frames. Samples go into a
+ * preallocated ring buffer, so recording a frame allocates nothing
+ * and takes no locks. Only the game thread may record. Other
+ * threads may read at any time; a frame that is overwritten while
+ * being read can show up with mixed values, which is fine for
+ * statistics.
+ */
+public final class FrameProfiler {
+
+    public static final int INPUT = 0;
+    public static final int UPDATE = 1;
+    public static final int RENDER = 2;
+    public static final int PRESENT = 3;
+    /**
+     * The wall time of the whole frame, from the end of the
+     * previous frame to the end of this one.
+     */
+    public static final int FRAME = 4;
+    public static final int PHASES = 5;
+    public static final String[] PHASE_NAMES = {"input", "update", "render", "present", "frame"};
+
+    private final int capacity;
+    private final int mask;
+    /**
+     * Row per frame, one column per phase.
+     */
+    private final long[] samples;
+    private final long[] current = new long[PHASES];
+    private final long[] started = new long[PHASES];
+    private long lastFrameEnd = 0;
+    /**
+     * The number of frames recorded so far. Written after the
+     * samples of a frame so readers never see a partly written
+     * newest frame.
+     */
+    private volatile long frames = 0;
+
+    /**
+     * @param capacity is the number of frames kept, rounded up
+     *                 to a power of two
+     */
+    public FrameProfiler(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        this.samples = new long[this.capacity * PHASES];
+    }
+
+    /**
+     * Marks the start of a phase in the current frame.
+     */
+    public void begin(int phase) {
+        started[phase] = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a phase. A phase that runs several times in
+     * one frame, like catch-up updates, adds up.
+     */
+    public void end(int phase) {
+        current[phase] += System.nanoTime() - started[phase];
+    }
+
+    /**
+     * Stores the current frame in the ring buffer and starts a
+     * new one.
+     */
+    public void endFrame() {
+        long now = System.nanoTime();
+        current[FRAME] = lastFrameEnd == 0 ? 0 : now - lastFrameEnd;
+        lastFrameEnd = now;
+        long frame = frames;
+        System.arraycopy(current, 0, samples, (int) (frame & mask) * PHASES, PHASES);
+        Arrays.fill(current, 0);
+        frames = frame + 1;
+    }
+
+    /**
+     * The number of frames recorded since the start, including
+     * the ones that were overwritten.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * The number of frames currently held in the buffer.
+     */
+    public int size() {
+        return (int) Math.min(frames, capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Copies the samples of a phase, oldest frame first.
+     */
+    public long[] getSamples(int phase) {
+        long frame = frames;
+        int count = (int) Math.min(frame, capacity);
+        long[] values = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            values[i] = samples[(int) ((frame - count + i) & mask) * PHASES + phase];
+        }
+        return values;
+    }
+
+    /**
+     * Returns the given percentile of a phase in nanoseconds.
+     *
+     * @param phase      is one of the phase constants
+     * @param percentile is between 0 and 100
+     */
+    public long getPercentile(int phase, double percentile) {
+        long[] values = getSamples(phase);
+
+        if (values.length == 0) {
+            return 0;
+        }
+        Arrays.sort(values);
+        int index = (int) Math.ceil(percentile / 100.0 * values.length) - 1;
+        return values[Math.max(0, Math.min(values.length - 1, index))];
+    }
+
+    public long getP50(int phase) {
+        return getPercentile(phase, 50);
+    }
+
+    public long getP95(int phase) {
+        return getPercentile(phase, 95);
+    }
+
+    public long getP99(int phase) {
+        return getPercentile(phase, 99);
+    }
+
+    /**
+     * The longest frame in the buffer in nanoseconds.
+     */
+    public long getWorstFrame() {
+        long worst = 0;
+
+        for (long value : getSamples(FRAME)) {
+            worst = Math.max(worst, value);
+        }
+        return worst;
+    }
+
+    /**
+     * The average frames per second over the frames in the buffer.
+     */
+    public double getAverageFps() {
+        long[] values = getSamples(FRAME);
+        long total = 0;
+
+        for (long value : values) {
+            total += value;
+        }
+        return total == 0 ? 0 : values.length * 1_000_000_000.0 / total;
+    }
+
+    /**
+     * Writes every frame in the buffer as a row of nanosecond
+     * timings, oldest first.
+     */
+    public void exportCsv(String file) {
+        long frame = frames;
+        int count = (int) Math.min(frame, capacity);
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write("frame," + String.join(",", PHASE_NAMES));
+            writer.newLine();
+
+            for (int i = 0; i < count; i++) {
+                long index = frame - count + i;
+                int row = (int) (index & mask) * PHASES;
+                writer.write(Long.toString(index));
+
+                for (int phase = 0; phase < PHASES; phase++) {
+                    writer.write(',');
+                    writer.write(Long.toString(samples[row + phase]));
+                }
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            Util.error(e, "Could not export frame timings to " + file);
+        }
+    }
+
+    /**
+     * A one line summary of p50/p95/p99 per phase in milliseconds
+     * and the worst frame.
+     */
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int phase = 0; phase < PHASES; phase++) {
+            builder.append(PHASE_NAMES[phase]).append(String.format(" p50=%.3f p95=%.3f p99=%.3f | ",
+                    getP50(phase) / 1e6, getP95(phase) / 1e6, getP99(phase) / 1e6));
+        }
+        return builder.append(String.format("worst=%.3f ms", getWorstFrame() / 1e6)).toString();
+    }
+}
@@ -42,6 +42,19 @@ public interface GameLogic extends Serializable {
      */
     void render(Graphics2D g2d);
 
+    /**
+     * Renders with an interpolation alpha between the previous
+     * and the current update. An alpha of 0 is the previous
+     * update and 1 is the current one. By default the alpha is
+     * ignored and the latest state is drawn.
+     *
+     * @param g2d   is the graphics object
+     * @param alpha is the interpolation between updates
+     */
+    default void render(Graphics2D g2d, float alpha) {
+        render(g2d);
+    }
+
     /**
      * Any memory management should be performed
      * is this method.
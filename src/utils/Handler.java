@@ -4,6 +4,7 @@ import core.Core;
 import core.Window;
 import entities.Player;
 import graphics.Camera;
+import graphics.RenderQueue;
 import inputs.Keyboard;
 import inputs.Mouse;
 import states.StateManager;
@@ -49,6 +50,10 @@ public class Handler {
         return core.getG2d();
     }
 
+    public RenderQueue getRenderQueue() {
+        return core.getRenderQueue();
+    }
+
     public Keyboard getKeyboard() {
         return core.getKey();
     }
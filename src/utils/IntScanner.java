@@ -0,0 +1,170 @@
+package utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads whitespace separated ints from a channel through a fixed
+ * buffer, parsing the digits straight from the bytes. Unlike
+ * reading the text into a String and splitting it, no objects are
+ * made per number, so files of millions of numbers are read with
+ * the memory of the buffer alone.
+ */
+public class IntScanner implements AutoCloseable {
+
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private long line = 1;
+
+    public IntScanner(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+    }
+
+    public IntScanner(InputStream in) {
+        this(Channels.newChannel(in));
+    }
+
+    public static IntScanner open(String file) throws IOException {
+        return new IntScanner(FileChannel.open(Path.of(file), StandardOpenOption.READ));
+    }
+
+    /**
+     * Whether another number follows, skipping any whitespace.
+     */
+    public boolean hasNext() throws IOException {
+        return skipWhitespace();
+    }
+
+    /**
+     * Parses the next number.
+     *
+     * @throws EOFException          when there are no more numbers
+     * @throws NumberFormatException when the next word is not a number
+     *                               or does not fit in an int
+     */
+    public int nextInt() throws IOException {
+        if (!skipWhitespace()) {
+            throw new EOFException("Expected a number at line " + line);
+        }
+        boolean negative = false;
+        byte b = buffer.get(buffer.position());
+
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            buffer.get();
+        }
+        long value = 0;
+        int digits = 0;
+
+        while (fill()) {
+            b = buffer.get(buffer.position());
+
+            if (b < '0' || b > '9') {
+                if (!isWhitespace(b)) {
+                    throw new NumberFormatException("Unexpected '" + (char) b + "' at line " + line);
+                }
+                break;
+            }
+            buffer.get();
+            value = value * 10 + (b - '0');
+
+            if (++digits > 10) {
+                throw new NumberFormatException("Number too long at line " + line);
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Expected a number at line " + line);
+        }
+        value = negative ? -value : value;
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number out of range at line " + line);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses the next count numbers into the array.
+     */
+    public void nextInts(int[] values, int offset, int count) throws IOException {
+        for (int i = offset; i < offset + count; i++) {
+            values[i] = nextInt();
+        }
+    }
+
+    /**
+     * Parses the next count numbers into the array. Numbers outside
+     * the range of a short are rejected.
+     */
+    public void nextShorts(short[] values, int offset, int count) throws IOException {
+        for (int i = offset; i < offset + count; i++) {
+            int value = nextInt();
+
+            if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+                throw new NumberFormatException("Number out of range at line " + line);
+            }
+            values[i] = (short) value;
+        }
+    }
+
+    /**
+     * The line the scanner is on, counted from one.
+     */
+    public long getLine() {
+        return line;
+    }
+
+    private boolean skipWhitespace() throws IOException {
+        while (fill()) {
+            byte b = buffer.get(buffer.position());
+
+            if (!isWhitespace(b)) {
+                return true;
+            }
+            if (b == '\n') {
+                line++;
+            }
+            buffer.get();
+        }
+        return false;
+    }
+
+    /**
+     * Makes sure at least one byte is buffered.
+     *
+     * @return false at the end of the channel
+     */
+    private boolean fill() throws IOException {
+        if (buffer.hasRemaining()) {
+            return true;
+        }
+        buffer.clear();
+        int read;
+
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        return read > 0;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,176 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Hands out objects of one type and takes them back for reuse, so
+ * short lived ones such as projectiles and hit effects are created
+ * once instead of every time. An object released is reset the next
+ * time it is acquired.
+ * <p>
+ * A pool counts how often an acquire was served by a released
+ * object, its hit rate, and the most objects that were out at once,
+ * its high-water mark, which is about as many as it needs to keep.
+ */
+public class Pool<T> {
+
+    private final String name;
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final int maxIdle;
+    private Object[] idle = new Object[16];
+    private int idleCount = 0;
+    private long acquired = 0;
+    private long hits = 0;
+    private int inUse = 0;
+    private int highWater = 0;
+
+    /**
+     * @param factory creates an object when none is free
+     * @param reset   readies a released object to be handed out
+     *                again, or null when there is nothing to reset
+     * @param maxIdle is the most released objects kept, the rest are
+     *                left to the garbage collector
+     */
+    public Pool(String name, Supplier<T> factory, Consumer<T> reset, int maxIdle) {
+        this.name = name;
+        this.factory = factory;
+        this.reset = reset;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Creates objects up front so the first acquires are hits.
+     */
+    public void fill(int count) {
+        while (idleCount < Math.min(count, maxIdle)) {
+            // Released like any other, so subclasses see it go idle
+            inUse++;
+            release(factory.get());
+        }
+    }
+
+    /**
+     * A released object reset, or a new one when none is free.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        T object;
+        acquired++;
+
+        while (idleCount > 0) {
+            object = (T) idle[--idleCount];
+            idle[idleCount] = null;
+
+            if (isReusable(object)) {
+                hits++;
+
+                if (reset != null) {
+                    reset.accept(object);
+                }
+                inUse++;
+                highWater = Math.max(highWater, inUse);
+                return object;
+            }
+        }
+        object = factory.get();
+        inUse++;
+        highWater = Math.max(highWater, inUse);
+        return object;
+    }
+
+    /**
+     * Takes an object back. It must not be used until it is acquired
+     * again, and must be released only once: beyond more releases
+     * than acquires, a pool of plain objects cannot tell, and would
+     * hand the object out twice. {@link entities.EntityPool} checks
+     * every release.
+     *
+     * @throws IllegalStateException when every object acquired was
+     *                               already released
+     */
+    public void release(T object) {
+        if (inUse == 0) {
+            throw new IllegalStateException(name + ": released more objects than were acquired");
+        }
+        inUse--;
+
+        if (idleCount < maxIdle) {
+            push(object);
+        } else {
+            discard(object);
+        }
+    }
+
+    /**
+     * Whether an idle object can still be handed out; one that
+     * cannot is dropped.
+     */
+    protected boolean isReusable(T object) {
+        return true;
+    }
+
+    /**
+     * Lets go of a released object when the pool is full.
+     */
+    protected void discard(T object) {
+    }
+
+    private void push(T object) {
+        if (idleCount == idle.length) {
+            idle = Arrays.copyOf(idle, idleCount * 2);
+        }
+        idle[idleCount++] = object;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The share of acquires served by a released object, 0 before
+     * the first acquire.
+     */
+    public float getHitRate() {
+        return acquired == 0 ? 0 : hits / (float) acquired;
+    }
+
+    public long getAcquired() {
+        return acquired;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * The objects acquired and not yet released.
+     */
+    public int getInUse() {
+        return inUse;
+    }
+
+    /**
+     * The objects free to be acquired.
+     */
+    public int getIdle() {
+        return idleCount;
+    }
+
+    /**
+     * The most objects that were out at once.
+     */
+    public int getHighWater() {
+        return highWater;
+    }
+
+    /**
+     * The counters on one line, for the log.
+     */
+    public String report() {
+        return String.format("%s: %d acquired, %.1f%% hits, %d in use, %d idle, high-water %d", name, acquired,
+                getHitRate() * 100, inUse, idleCount, highWater);
+    }
+}
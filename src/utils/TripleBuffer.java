@@ -0,0 +1,74 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands values from one producer thread to one consumer thread
+ * without locks or allocation. There are three slots: the producer
+ * fills the back slot and publishes it, the consumer reads the
+ * front slot, and the third slot holds the latest published value
+ * until the consumer swaps it in. The producer never waits for the
+ * consumer and the consumer always sees the newest complete value.
+ * <p>
+ * A slot must not be touched by the producer after it was
+ * published, nor by the consumer after it was swapped out.
+ */
+public final class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 0b11;
+    private static final int FRESH = 0b100;
+
+    private final Object[] slots = new Object[3];
+    /**
+     * The index of the slot in the middle, plus the fresh bit when
+     * it holds a value the consumer has not seen yet.
+     */
+    private final AtomicInteger middle = new AtomicInteger(2);
+    private int back = 0;
+    private int front = 1;
+
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = factory.get();
+        }
+    }
+
+    /**
+     * The slot the producer may fill. Only call from the
+     * producer thread.
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Makes the back slot the latest value and gives the producer
+     * a new back slot. Only call from the producer thread.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Returns the latest published value, or the value returned
+     * last time when nothing new was published. Only call from the
+     * consumer thread.
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) slots[front];
+    }
+
+    /**
+     * Whether a value was published that the consumer has not
+     * picked up yet.
+     */
+    public boolean isFresh() {
+        return (middle.get() & FRESH) != 0;
+    }
+}
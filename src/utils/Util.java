@@ -63,6 +63,42 @@ public class Util {
         }
     }
 
+    /**
+     * Opens a text file of whitespace separated numbers for reading
+     * one at a time, see {@link IntScanner}.
+     */
+    public static IntScanner scanInts(String file) {
+        try {
+            return IntScanner.open(file);
+        } catch (IOException ex) {
+            error(ex, ex.getLocalizedMessage());
+            exit(-1);
+            return null;
+        }
+    }
+
+    /**
+     * Reads every whitespace separated number of a text file
+     * without building the file as a String.
+     */
+    public static int[] loadInts(String file) {
+        int[] values = new int[1024];
+        int count = 0;
+
+        try (IntScanner scanner = IntScanner.open(file)) {
+            while (scanner.hasNext()) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = scanner.nextInt();
+            }
+        } catch (IOException | NumberFormatException ex) {
+            error(ex, "Error reading numbers from " + file + ": " + ex.getLocalizedMessage());
+            exit(-1);
+        }
+        return Arrays.copyOf(values, count);
+    }
+
     public static BufferedImage loadTexture(String imagePath) {
         BufferedImage image = null;
         try {